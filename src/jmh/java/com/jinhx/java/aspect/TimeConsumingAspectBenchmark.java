@@ -0,0 +1,118 @@
+package com.jinhx.java.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimeConsumingAspect单次调用开销
+ *
+ * direct：不经过代理直接调用
+ * reflective：每次调用都通过反射获取参数名、类名和注解，即元数据缓存之前的做法
+ * cached：当前的TimeConsumingAspect，元数据按Method缓存
+ * 三个场景都不打印日志（采样率为0），只比较切面本身的开销。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeConsumingAspectBenchmark {
+
+    private Service direct;
+
+    private Service reflective;
+
+    private Service cached;
+
+    private TimeConsumingLogger timeConsumingLogger;
+
+    @Setup
+    public void setup() {
+        TimeConsumingProperties timeConsumingProperties = new TimeConsumingProperties();
+        timeConsumingProperties.setSampleRate(0);
+        TimeConsumingRegistry timeConsumingRegistry = new TimeConsumingRegistry();
+        timeConsumingLogger = new TimeConsumingLogger(timeConsumingProperties);
+
+        direct = new Service();
+        reflective = proxy(new ReflectiveAspect(timeConsumingRegistry));
+        cached = proxy(new TimeConsumingAspect(timeConsumingRegistry, timeConsumingProperties, timeConsumingLogger));
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        timeConsumingLogger.shutdown();
+    }
+
+    @Benchmark
+    public int direct() {
+        return direct.work(1, "a");
+    }
+
+    @Benchmark
+    public int reflective() {
+        return reflective.work(1, "a");
+    }
+
+    @Benchmark
+    public int cached() {
+        return cached.work(1, "a");
+    }
+
+    private static Service proxy(Object aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Service());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    public static class Service {
+
+        @TimeConsuming
+        public int work(int a, String b) {
+            return a + b.length();
+        }
+
+    }
+
+    /**
+     * 元数据缓存之前的切面：每次调用都做反射查找
+     */
+    @Aspect
+    public static class ReflectiveAspect {
+
+        private final TimeConsumingRegistry timeConsumingRegistry;
+
+        public ReflectiveAspect(TimeConsumingRegistry timeConsumingRegistry) {
+            this.timeConsumingRegistry = timeConsumingRegistry;
+        }
+
+        @Around("@annotation(com.jinhx.java.aspect.TimeConsuming)")
+        public Object around(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+            long start = System.nanoTime();
+            try {
+                return proceedingJoinPoint.proceed();
+            } finally {
+                long elapsedNanos = System.nanoTime() - start;
+                MethodSignature signature = (MethodSignature) proceedingJoinPoint.getSignature();
+                String[] names = signature.getParameterNames();
+                String className = proceedingJoinPoint.getTarget().getClass().getName();
+                TimeConsuming timeConsuming = signature.getMethod().getAnnotation(TimeConsuming.class);
+                if (names.length >= 0 && timeConsuming.printParams()) {
+                    timeConsumingRegistry.histogram(className + "#" + signature.getName()).record(elapsedNanos);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.jinhx.java.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * BeanUtil转换
+ *
+ * spring开头的为直接使用spring BeanUtils.copyProperties的对照组，即复制计划缓存之前的做法。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanUtilBenchmark {
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private BenchmarkUser user;
+
+    private List<BenchmarkUser> users;
+
+    @Setup
+    public void setup() {
+        user = BenchmarkUser.of(1);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(BenchmarkUser.of(i));
+        }
+    }
+
+    @Benchmark
+    public BenchmarkUserDTO covert() {
+        return BeanUtil.covert(user, BenchmarkUserDTO.class);
+    }
+
+    @Benchmark
+    public BenchmarkUserDTO springCovert() {
+        BenchmarkUserDTO target = new BenchmarkUserDTO();
+        BeanUtils.copyProperties(user, target);
+        return target;
+    }
+
+    @Benchmark
+    public BenchmarkUserDTO copyIgnoreNull() {
+        BenchmarkUserDTO target = new BenchmarkUserDTO();
+        BeanUtil.copyIgnoreNull(user, target);
+        return target;
+    }
+
+    @Benchmark
+    public List<BenchmarkUserDTO> batchCovert() {
+        return BeanUtil.batchCovert(users, BenchmarkUserDTO.class);
+    }
+
+    @Benchmark
+    public List<BenchmarkUserDTO> parallelBatchCovert() {
+        return BeanUtil.parallelBatchCovert(users, BenchmarkUserDTO.class);
+    }
+
+    @Benchmark
+    public List<BenchmarkUserDTO> covertStream() {
+        return BeanUtil.covertStream(users.stream(), BenchmarkUserDTO.class).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BenchmarkUserDTO> springBatchCovert() {
+        List<BenchmarkUserDTO> targets = new ArrayList<>();
+        for (BenchmarkUser source : users) {
+            BenchmarkUserDTO target = new BenchmarkUserDTO();
+            BeanUtils.copyProperties(source, target);
+            targets.add(target);
+        }
+        return targets;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.jinhx.java.util;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 基准测试用的实体
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Data
+public class BenchmarkUser {
+
+    private Long userId;
+
+    private String userName;
+
+    private String email;
+
+    private Integer age;
+
+    private int level;
+
+    private long score;
+
+    private Boolean enabled;
+
+    private BigDecimal balance;
+
+    private LocalDateTime createTime;
+
+    private String remark;
+
+    public static BenchmarkUser of(long i) {
+        BenchmarkUser user = new BenchmarkUser();
+        user.setUserId(i);
+        user.setUserName("user" + i);
+        user.setEmail("user" + i + "@jinhx.cc");
+        user.setAge((int) (i % 100));
+        user.setLevel((int) (i % 10));
+        user.setScore(i * 10);
+        user.setEnabled(i % 2 == 0);
+        user.setBalance(BigDecimal.valueOf(i, 2));
+        user.setCreateTime(LocalDateTime.of(2022, 1, 1, 0, 0));
+        user.setRemark(i % 3 == 0 ? null : "remark" + i);
+        return user;
+    }
+
+}
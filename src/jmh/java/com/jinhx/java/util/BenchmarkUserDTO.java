@@ -0,0 +1,37 @@
+package com.jinhx.java.util;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 基准测试用的DTO，与BenchmarkUser同名属性可以直接复制
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Data
+public class BenchmarkUserDTO {
+
+    private Long userId;
+
+    private String userName;
+
+    private String email;
+
+    private Integer age;
+
+    private int level;
+
+    private long score;
+
+    private Boolean enabled;
+
+    private BigDecimal balance;
+
+    private LocalDateTime createTime;
+
+    private String remark;
+
+}
@@ -0,0 +1,61 @@
+package com.jinhx.java.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EncodeUtils摘要和AES加解密
+ *
+ * BCrypt本身就被设计为慢算法（单次约几十毫秒），不在这里测试。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeUtilsBenchmark {
+
+    private static final String KEY = "java-demo-benchmark-key";
+
+    @Param({"16", "4096"})
+    private int length;
+
+    private String content;
+
+    private String encrypted;
+
+    @Setup
+    public void setup() {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        content = new String(chars);
+        encrypted = EncodeUtils.encryptByAES(content, KEY);
+    }
+
+    @Benchmark
+    public String md5() throws Exception {
+        return EncodeUtils.encoderByMD5(content);
+    }
+
+    @Benchmark
+    public String sha256() throws Exception {
+        return EncodeUtils.encoderBySHA256(content);
+    }
+
+    @Benchmark
+    public String encryptByAES() {
+        return EncodeUtils.encryptByAES(content, KEY);
+    }
+
+    @Benchmark
+    public String decryptByAES() {
+        return EncodeUtils.decryptByAES(encrypted, KEY);
+    }
+
+}
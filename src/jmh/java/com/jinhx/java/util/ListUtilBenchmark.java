@@ -0,0 +1,74 @@
+package com.jinhx.java.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ListUtil分割集合
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListUtilBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"100"})
+    private int splitSize;
+
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+    }
+
+    @Benchmark
+    public List<List<Integer>> splitByInsideListSize() {
+        return ListUtil.splitByInsideListSize(list, splitSize);
+    }
+
+    @Benchmark
+    public List<List<Integer>> splitByOutsideListSize() {
+        return ListUtil.splitByOutsideListSize(list, splitSize);
+    }
+
+    @Benchmark
+    public List<List<Integer>> splitBalanced() {
+        return ListUtil.splitBalanced(list, splitSize);
+    }
+
+    @Benchmark
+    public int partitionView() {
+        int total = 0;
+        for (List<Integer> chunk : ListUtil.partitionView(list, splitSize)) {
+            total += chunk.size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int partitionIterator() {
+        int total = 0;
+        Iterator<List<Integer>> iterator = ListUtil.partition(list.iterator(), splitSize);
+        while (iterator.hasNext()) {
+            total += iterator.next().size();
+        }
+        return total;
+    }
+
+}
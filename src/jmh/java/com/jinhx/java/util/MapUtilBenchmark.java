@@ -0,0 +1,83 @@
+package com.jinhx.java.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapUtil对象与map互转
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapUtilBenchmark {
+
+    private BenchmarkUser user;
+
+    private Map<String, Object> map;
+
+    /**
+     * 值都是字符串，与从redis hash读出的数据相同
+     */
+    private Map<String, Object> stringMap;
+
+    private List<BenchmarkUser> users;
+
+    @Setup
+    public void setup() {
+        user = BenchmarkUser.of(1);
+        map = MapUtil.objectToMap(user);
+        stringMap = new HashMap<>();
+        map.forEach((k, v) -> stringMap.put(k, v == null ? null : String.valueOf(v)));
+        users = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            users.add(BenchmarkUser.of(i));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> objectToMap() {
+        return MapUtil.objectToMap(user);
+    }
+
+    /**
+     * 只读取两个key，视图不复制字段
+     */
+    @Benchmark
+    public Object asMapGet() {
+        Map<String, Object> view = MapUtil.asMap(user);
+        return view.get("userName") == null ? null : view.get("balance");
+    }
+
+    @Benchmark
+    public Object objectToMapGet() {
+        Map<String, Object> copy = MapUtil.objectToMap(user);
+        return copy.get("userName") == null ? null : copy.get("balance");
+    }
+
+    @Benchmark
+    public BenchmarkUser mapToObject() {
+        return MapUtil.mapToObject(map, BenchmarkUser.class);
+    }
+
+    @Benchmark
+    public BenchmarkUser mapToObjectFromStrings() {
+        return MapUtil.mapToObject(stringMap, BenchmarkUser.class);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> objectsToMaps() {
+        return MapUtil.objectsToMaps(users);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.jinhx.java.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各种traceId生成方式的开销
+ *
+ * uuid为原来的IdUtil.simpleUUID()，基于SecureRandom；w3cAppend/fastAppend写入复用的StringBuilder，不创建String。
+ * 建议同时加上-t 4观察多线程下的差异。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceIdBenchmark {
+
+    private final StringBuilder sb = new StringBuilder(32);
+
+    @Benchmark
+    public String uuid() {
+        return TraceIdMode.UUID.generate();
+    }
+
+    @Benchmark
+    public String fast() {
+        return TraceIdMode.FAST.generate();
+    }
+
+    @Benchmark
+    public String w3c() {
+        return TraceIdMode.W3C.generate();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return TraceIdMode.SNOWFLAKE.generate();
+    }
+
+    @Benchmark
+    public StringBuilder fastAppend() {
+        sb.setLength(0);
+        TraceIdMode.FAST.appendTo(sb);
+        return sb;
+    }
+
+    @Benchmark
+    public StringBuilder w3cAppend() {
+        sb.setLength(0);
+        TraceIdMode.W3C.appendTo(sb);
+        return sb;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.jinhx.java.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserAgentUtils解析
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAgentUtilsBenchmark {
+
+    @Param({
+            "Mozilla/5.0 (Linux; Android 8.0; LON-AL00 Build/HUAWEILON-AL00; wv) AppleWebKit/537.36 (KHTML, like Gecko) Version/4.0 Chrome/57.0.2987.132 MQQBrowser/6.2 TBS/044204 Mobile Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 12_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/16A366 QQ/7.7.8.421",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 11_1_0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/87.0.4280.88 Safari/537.36"
+    })
+    private String userAgent;
+
+    @Benchmark
+    public String getBrowserName() {
+        return UserAgentUtils.getBrowserName(userAgent);
+    }
+
+    @Benchmark
+    public String getOs() {
+        return UserAgentUtils.getOs(userAgent);
+    }
+
+    @Benchmark
+    public String getOsVersion() {
+        return UserAgentUtils.getOsVersion(userAgent);
+    }
+
+    @Benchmark
+    public String getDeviceType() {
+        return UserAgentUtils.getDeviceType(userAgent);
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.jinhx.java.util;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * ZipUtils压缩和解压，压缩输出到空流，只统计读取和压缩的开销
+ *
+ * 文件内容一半是随机字节一半是重复文本，压缩率接近常见的业务文件。
+ * toZipParallel使用4个压缩线程，需要在多核机器上运行才能看到加速效果。
+ * 解压使用setup中压缩好的压缩包，unzip系列写入临时目录，readEntry和forEachEntry不写文件。
+ * toZipIncremental在文件都没有修改时重新生成压缩包，全部条目原样复制。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipUtilsBenchmark {
+
+    @Param({"100"})
+    private int fileCount;
+
+    @Param({"16384", "1048576"})
+    private int fileSize;
+
+    private File dir;
+
+    private List<File> files;
+
+    private ZipOptions parallelOptions;
+
+    private ZipOptions bestSpeedOptions;
+
+    private File zipFile;
+
+    private File unzipDir;
+
+    private String lastEntryName;
+
+    private File incrementalZipFile;
+
+    @Setup
+    public void setup() throws IOException {
+        parallelOptions = ZipOptions.builder().parallelism(4).build();
+        bestSpeedOptions = ZipOptions.builder().level(Deflater.BEST_SPEED).build();
+        dir = Files.createTempDirectory("zip-benchmark").toFile();
+        files = new ArrayList<>(fileCount);
+        Random random = new Random(fileSize);
+        byte[] text = "java-demo zip benchmark line\n".getBytes();
+        for (int i = 0; i < fileCount; i++) {
+            byte[] data = new byte[fileSize];
+            random.nextBytes(data);
+            for (int j = fileSize / 2; j < fileSize; j++) {
+                data[j] = text[j % text.length];
+            }
+            File file = new File(dir, "file" + i + ".dat");
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(data);
+            }
+            files.add(file);
+        }
+        zipFile = Files.createTempFile("zip-benchmark", ".zip").toFile();
+        try (OutputStream out = new FileOutputStream(zipFile)) {
+            ZipUtils.toZip(files, out, ZipOptions.defaults());
+        }
+        unzipDir = Files.createTempDirectory("unzip-benchmark").toFile();
+        lastEntryName = files.get(fileCount - 1).getName();
+        incrementalZipFile = new File(unzipDir.getParentFile(), unzipDir.getName() + ".zip");
+        ZipUtils.toZipIncremental(dir.getPath(), incrementalZipFile, ZipOptions.defaults());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+        FileUtils.deleteDirectory(unzipDir);
+        FileUtils.deleteQuietly(zipFile);
+        FileUtils.deleteQuietly(incrementalZipFile);
+        FileUtils.deleteQuietly(new File(incrementalZipFile.getPath() + ".manifest"));
+    }
+
+    @Benchmark
+    public void toZipDir() throws Exception {
+        ZipUtils.toZip(dir.getPath(), NullOutputStream.NULL_OUTPUT_STREAM, true);
+    }
+
+    @Benchmark
+    public void toZipFiles() throws Exception {
+        ZipUtils.toZip(files, NullOutputStream.NULL_OUTPUT_STREAM);
+    }
+
+    @Benchmark
+    public ZipStats toZipParallel() throws IOException {
+        return ZipUtils.toZip(dir.getPath(), NullOutputStream.NULL_OUTPUT_STREAM, parallelOptions);
+    }
+
+    @Benchmark
+    public ZipStats toZipBestSpeed() throws IOException {
+        return ZipUtils.toZip(dir.getPath(), NullOutputStream.NULL_OUTPUT_STREAM, bestSpeedOptions);
+    }
+
+    @Benchmark
+    public ZipStats toZipIncremental() throws IOException {
+        return ZipUtils.toZipIncremental(dir.getPath(), incrementalZipFile, ZipOptions.defaults());
+    }
+
+    @Benchmark
+    public ZipStats unzip() throws IOException {
+        return ZipUtils.unzip(zipFile, unzipDir);
+    }
+
+    @Benchmark
+    public ZipStats unzipParallel() throws IOException {
+        return ZipUtils.unzip(zipFile, unzipDir, parallelOptions);
+    }
+
+    @Benchmark
+    public byte[] readEntry() throws IOException {
+        return ZipUtils.readEntry(zipFile, lastEntryName);
+    }
+
+    @Benchmark
+    public long forEachEntry() throws IOException {
+        long[] total = new long[1];
+        try (InputStream in = new BufferedInputStream(new FileInputStream(zipFile))) {
+            ZipUtils.forEachEntry(in, (entry, entryIn) -> total[0] += org.apache.commons.io.IOUtils.copyLarge(entryIn, NullOutputStream.NULL_OUTPUT_STREAM));
+        }
+        return total[0];
+    }
+
+}
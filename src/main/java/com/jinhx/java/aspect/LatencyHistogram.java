@@ -0,0 +1,134 @@
+package com.jinhx.java.aspect;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的耗时直方图，HDR风格的对数-线性分桶
+ *
+ * 小于32ns的值每个值一个桶，之后每个2的幂区间再平均分为32个子桶，相对误差约3%。
+ * 记录只有一次数组原子自增和两次LongAdder/LongAccumulator更新，不加锁，不分配对象。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class LatencyHistogram {
+
+    /**
+     * 子桶位数，每个2的幂区间分为2^SUB_BUCKET_BITS个子桶
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 覆盖到Long.MAX_VALUE所需的桶数
+     */
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时，单位纳秒
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * 生成当前数据的快照，快照期间的并发写入可能只被部分计入
+     *
+     * @param name 名称
+     * @return LatencySnapshot
+     */
+    public LatencySnapshot snapshot(String name) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long max = maxNanos.get();
+        long sum = totalNanos.sum();
+        return new LatencySnapshot(name, total, total == 0 ? 0 : sum / total, max,
+                valueAtPercentile(counts, total, max, 50.0),
+                valueAtPercentile(counts, total, max, 90.0),
+                valueAtPercentile(counts, total, max, 99.0),
+                valueAtPercentile(counts, total, max, 99.9));
+    }
+
+    /**
+     * 清空所有数据
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * 累计记录次数
+     *
+     * @return long
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + sub;
+    }
+
+    /**
+     * 桶内的最大值，与HDR的highestEquivalentValue含义一致
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long sub = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowest = (SUB_BUCKET_COUNT + sub) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static long valueAtPercentile(long[] counts, long total, long max, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.jinhx.java.aspect;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 耗时统计快照，耗时单位均为纳秒
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LatencySnapshot {
+
+    /**
+     * 方法标识，className#methodName
+     */
+    private final String name;
+
+    /**
+     * 调用次数
+     */
+    private final long count;
+
+    /**
+     * 平均耗时
+     */
+    private final long mean;
+
+    /**
+     * 最大耗时
+     */
+    private final long max;
+
+    private final long p50;
+
+    private final long p90;
+
+    private final long p99;
+
+    private final long p999;
+
+}
@@ -18,4 +18,24 @@ public @interface TimeConsuming {
      */
     boolean printParams() default true;
 
+    /**
+     * 慢调用阈值，单位毫秒，超过该值必定打印日志，小于0表示使用全局配置
+     */
+    long slowThresholdMillis() default -1;
+
+    /**
+     * 日志采样率，取值0~1，小于0表示使用全局配置
+     */
+    double sampleRate() default -1;
+
+    /**
+     * req和rsp序列化后的最大长度，小于0表示使用全局配置
+     */
+    int maxPayloadLength() default -1;
+
+    /**
+     * 每秒最多打印的日志条数，超出后自动降低采样率，等于0表示不限制，小于0表示使用全局配置
+     */
+    int logBudgetPerSecond() default -1;
+
 }
@@ -1,8 +1,6 @@
 package com.jinhx.java.aspect;
 
-import cn.hutool.json.JSONUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.time.StopWatch;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -12,8 +10,10 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TimeConsumingAspect
@@ -27,6 +27,25 @@ import java.util.Map;
 @Order(-1)
 public class TimeConsumingAspect {
 
+    private final TimeConsumingRegistry timeConsumingRegistry;
+
+    private final TimeConsumingProperties timeConsumingProperties;
+
+    private final TimeConsumingLogger timeConsumingLogger;
+
+    /**
+     * 方法元数据缓存，按Method和目标类区分，稳定运行后切面不再做任何反射调用
+     * 同一个注解方法被多个子类继承时（如公共的基类Service），每个子类有各自的className和直方图
+     */
+    private final ConcurrentMap<Method, ConcurrentMap<Class<?>, TimeConsumingMetadata>> metadataCache = new ConcurrentHashMap<>();
+
+    public TimeConsumingAspect(TimeConsumingRegistry timeConsumingRegistry, TimeConsumingProperties timeConsumingProperties,
+                               TimeConsumingLogger timeConsumingLogger) {
+        this.timeConsumingRegistry = timeConsumingRegistry;
+        this.timeConsumingProperties = timeConsumingProperties;
+        this.timeConsumingLogger = timeConsumingLogger;
+    }
+
     @Pointcut("@annotation(com.jinhx.java.aspect.TimeConsuming)")
     public void timeConsumingPointCut() {
 
@@ -35,8 +54,7 @@ public class TimeConsumingAspect {
     @Around("timeConsumingPointCut()")
     public Object around(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
         // 耗时计算
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
+        long start = System.nanoTime();
 
         // 执行方法
         Object result = null;
@@ -44,29 +62,40 @@ public class TimeConsumingAspect {
             result = proceedingJoinPoint.proceed();
             return result;
         } finally {
-            stopWatch.stop();
-            Object finalResult = result;
-            MethodSignature signature = (MethodSignature) proceedingJoinPoint.getSignature();
+            long end = System.nanoTime();
+            long elapsedNanos = end - start;
+            TimeConsumingMetadata metadata = getMetadata(proceedingJoinPoint);
+            metadata.getHistogram().record(elapsedNanos);
 
-            Map<String, Object> map = new HashMap<>();
-            Object[] values = proceedingJoinPoint.getArgs();
-            String[] names = signature.getParameterNames();
-            for (int i = 0; i < names.length; i++) {
-                map.put(names[i], values[i]);
+            // 打印参数时日志由TimeConsumingLogger输出，按其logger的级别判断
+            boolean enabled = metadata.isPrintParams() ? timeConsumingLogger.isEnabled() : log.isInfoEnabled();
+            if (enabled && metadata.getLogPolicy().shouldLog(elapsedNanos, end)) {
+                // 日志保留原有的秒格式，纳秒精度的数据在直方图中
+                String time = (double) TimeUnit.NANOSECONDS.toMillis(elapsedNanos) / 1000 + "s";
+                if (metadata.isPrintParams()) {
+                    // 只复制参数数组，序列化和打印在后台线程完成
+                    timeConsumingLogger.submit(metadata, time, proceedingJoinPoint.getArgs(), result);
+                } else {
+                    log.info("act={} className={} time={}", metadata.getMethodName(), metadata.getClassName(), time);
+                }
             }
+        }
+    }
 
-            String className = proceedingJoinPoint.getTarget().getClass().getName();
-            String methodName = signature.getName();
-
-            Method method = signature.getMethod();
-            TimeConsuming timeConsuming = method.getAnnotation(TimeConsuming.class);
-            if (timeConsuming.printParams()) {
-                log.info("act={} className={} time={} req={} rsp={}", methodName, className, (double) stopWatch.getTime() / 1000 + "s",
-                        JSONUtil.parseObj(map), JSONUtil.parseObj(finalResult));
-            } else {
-                log.info("act={} className={} time={}", methodName, className, (double) stopWatch.getTime() / 1000 + "s");
-            }
+    private TimeConsumingMetadata getMetadata(ProceedingJoinPoint proceedingJoinPoint) {
+        MethodSignature signature = (MethodSignature) proceedingJoinPoint.getSignature();
+        Method method = signature.getMethod();
+        Class<?> targetClass = proceedingJoinPoint.getTarget().getClass();
+        ConcurrentMap<Class<?>, TimeConsumingMetadata> byClass = metadataCache.get(method);
+        if (Objects.isNull(byClass)) {
+            byClass = metadataCache.computeIfAbsent(method, k -> new ConcurrentHashMap<>(4));
+        }
+        TimeConsumingMetadata metadata = byClass.get(targetClass);
+        if (Objects.nonNull(metadata)) {
+            return metadata;
         }
+        return byClass.computeIfAbsent(targetClass, k -> new TimeConsumingMetadata(k, method,
+                signature.getParameterNames(), timeConsumingProperties, timeConsumingRegistry));
     }
 
 }
@@ -0,0 +1,115 @@
+package com.jinhx.java.aspect;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个方法的日志打印策略，注解属性和全局配置在创建时合并，之后每次调用只做数值比较
+ *
+ * 慢调用必定打印，其余按采样率打印。配置了每秒日志预算时，每秒检查一次打印条数：
+ * 超出预算则按比例降低采样率，低于预算一半则采样率翻倍，直到恢复为配置值。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class TimeConsumingLogPolicy {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 自动降低采样率的下限
+     */
+    private static final double MIN_SAMPLE_RATE = 1e-6;
+
+    private final long slowThresholdNanos;
+
+    private final double baseSampleRate;
+
+    private final int maxPayloadLength;
+
+    private final int logBudgetPerSecond;
+
+    private volatile double sampleRate;
+
+    private final AtomicLong windowStart;
+
+    private final AtomicLong windowCount = new AtomicLong();
+
+    public TimeConsumingLogPolicy(TimeConsuming timeConsuming, TimeConsumingProperties timeConsumingProperties) {
+        long slowThresholdMillis = timeConsuming.slowThresholdMillis() >= 0
+                ? timeConsuming.slowThresholdMillis() : timeConsumingProperties.getSlowThresholdMillis();
+        this.slowThresholdNanos = slowThresholdMillis >= 0 ? TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis) : Long.MAX_VALUE;
+        this.baseSampleRate = timeConsuming.sampleRate() >= 0 ? timeConsuming.sampleRate() : timeConsumingProperties.getSampleRate();
+        this.maxPayloadLength = timeConsuming.maxPayloadLength() >= 0
+                ? timeConsuming.maxPayloadLength() : timeConsumingProperties.getMaxPayloadLength();
+        this.logBudgetPerSecond = timeConsuming.logBudgetPerSecond() >= 0
+                ? timeConsuming.logBudgetPerSecond() : timeConsumingProperties.getLogBudgetPerSecond();
+        this.sampleRate = baseSampleRate;
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 判断本次调用是否打印日志
+     *
+     * @param elapsedNanos 耗时
+     * @param nowNanos     当前System.nanoTime()
+     * @return boolean
+     */
+    public boolean shouldLog(long elapsedNanos, long nowNanos) {
+        if (logBudgetPerSecond > 0) {
+            adjust(nowNanos);
+        }
+
+        boolean emit;
+        if (elapsedNanos >= slowThresholdNanos) {
+            emit = true;
+        } else {
+            double rate = sampleRate;
+            emit = rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+        }
+
+        if (emit && logBudgetPerSecond > 0) {
+            windowCount.incrementAndGet();
+        }
+        return emit;
+    }
+
+    /**
+     * req和rsp序列化后的最大长度
+     *
+     * @return int
+     */
+    public int getMaxPayloadLength() {
+        return maxPayloadLength;
+    }
+
+    /**
+     * 当前生效的采样率
+     *
+     * @return double
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 每个窗口只有一个线程能CAS成功并调整采样率
+     */
+    private void adjust(long nowNanos) {
+        long start = windowStart.get();
+        if (nowNanos - start < WINDOW_NANOS || !windowStart.compareAndSet(start, nowNanos)) {
+            return;
+        }
+        long count = windowCount.getAndSet(0);
+        // 按实际窗口长度折算成每秒条数
+        double perSecond = (double) count * WINDOW_NANOS / (nowNanos - start);
+        double rate = sampleRate;
+        if (perSecond > logBudgetPerSecond) {
+            sampleRate = Math.max(MIN_SAMPLE_RATE, rate * logBudgetPerSecond / perSecond);
+        } else if (perSecond < logBudgetPerSecond / 2.0 && rate < baseSampleRate) {
+            sampleRate = Math.min(baseSampleRate, Math.max(rate * 2, MIN_SAMPLE_RATE));
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.jinhx.java.aspect;
+
+import cn.hutool.json.JSONUtil;
+import com.jinhx.java.util.ThreadMdcUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TimeConsuming请求响应日志的异步输出
+ *
+ * 只有确定要打印时才会调用submit()，调用线程只复制参数数组（浅快照），序列化和打印在有界的后台线程池中完成，
+ * 队列满时直接丢弃并计数，不会阻塞调用方，也不会再做序列化。
+ * 序列化结果超出长度时截断；hutool会先把对象转换成完整的JSON对象再输出，截断只限制日志的长度，不能减少序列化本身的开销。
+ * 注意：参数和返回值对象本身没有复制，如果调用方在方法返回后继续修改，日志中看到的可能是修改后的内容。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+public class TimeConsumingLogger {
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    public TimeConsumingLogger(TimeConsumingProperties timeConsumingProperties) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        int threads = Math.max(1, timeConsumingProperties.getLogThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, timeConsumingProperties.getLogQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "time-consuming-log-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, threadPoolExecutor) -> {
+                    throw new RejectedExecutionException();
+                });
+    }
+
+    /**
+     * 提交一条带请求响应的日志，只应在确定打印时调用
+     *
+     * @param metadata 方法元数据
+     * @param time     耗时
+     * @param args     参数值
+     * @param result   返回值
+     */
+    public void submit(TimeConsumingMetadata metadata, String time, Object[] args, Object result) {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            // 队列已满时不再复制参数
+            dropped();
+            return;
+        }
+        Object[] argsSnapshot = args.clone();
+        Map<String, String> context = ThreadMdcUtils.snapshot();
+        try {
+            executor.execute(() -> {
+                Map<String, String> previous = ThreadMdcUtils.snapshot();
+                if (Objects.isNull(context)) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    String[] names = metadata.getParameterNames();
+                    Map<String, Object> map = new LinkedHashMap<>(metadata.getMapCapacity());
+                    for (int i = 0; i < names.length && i < argsSnapshot.length; i++) {
+                        map.put(names[i], argsSnapshot[i]);
+                    }
+                    int maxPayloadLength = metadata.getLogPolicy().getMaxPayloadLength();
+                    log.info("act={} className={} time={} req={} rsp={}", metadata.getMethodName(), metadata.getClassName(),
+                            time, toJson(map, maxPayloadLength), toJson(result, maxPayloadLength));
+                } finally {
+                    if (Objects.isNull(previous)) {
+                        MDC.clear();
+                    } else {
+                        MDC.setContextMap(previous);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped();
+        }
+    }
+
+    private void dropped() {
+        droppedCount.increment();
+        long dropped = droppedCount.sum();
+        if (dropped % 1000 == 1) {
+            log.warn("act=TimeConsumingLogger queue full, dropped={}", dropped);
+        }
+    }
+
+    /**
+     * 请求响应日志是否会被打印，由本类的logger级别决定
+     *
+     * @return boolean
+     */
+    public boolean isEnabled() {
+        return log.isInfoEnabled();
+    }
+
+    /**
+     * 因队列已满被丢弃的日志条数
+     *
+     * @return long
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 等待输出的日志条数
+     *
+     * @return int
+     */
+    public int getPendingCount() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 序列化为json，输出超出长度后截断，序列化失败时使用toString()
+     */
+    private static String toJson(Object obj, int maxLength) {
+        if (Objects.isNull(obj) || obj instanceof CharSequence || obj instanceof Number || obj instanceof Boolean) {
+            return truncate(String.valueOf(obj), maxLength);
+        }
+        LimitedWriter writer = new LimitedWriter(maxLength);
+        try {
+            JSONUtil.toJsonStr(obj, writer);
+        } catch (Exception e) {
+            if (!writer.isTruncated()) {
+                return truncate(safeToString(obj), maxLength);
+            }
+        }
+        return writer.isTruncated() ? writer.builder.append("...(truncated)").toString() : writer.builder.toString();
+    }
+
+    private static String safeToString(Object obj) {
+        try {
+            return String.valueOf(obj);
+        } catch (Exception e) {
+            return obj.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(obj))
+                    + "(toString failed: " + e + ")";
+        }
+    }
+
+    private static String truncate(String str, int maxLength) {
+        return maxLength < 0 || str.length() <= maxLength ? str : str.substring(0, maxLength) + "...(truncated)";
+    }
+
+    /**
+     * 超出长度后抛出异常停止输出的Writer，避免超长的内容写入StringBuilder
+     */
+    private static class LimitedWriter extends Writer {
+
+        private static final LimitExceededException LIMIT_EXCEEDED = new LimitExceededException();
+
+        private final StringBuilder builder;
+
+        private final int maxLength;
+
+        private boolean truncated;
+
+        LimitedWriter(int maxLength) {
+            this.maxLength = maxLength < 0 ? Integer.MAX_VALUE : maxLength;
+            this.builder = new StringBuilder(Math.min(this.maxLength, 256));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            int remaining = maxLength - builder.length();
+            if (len > remaining) {
+                builder.append(cbuf, off, remaining);
+                truncated = true;
+                throw LIMIT_EXCEEDED;
+            }
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() {
+
+        }
+
+        @Override
+        public void close() {
+
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+    }
+
+    /**
+     * 中断序列化用的异常，预先创建，不收集堆栈
+     */
+    private static class LimitExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LimitExceededException() {
+            super("payload limit exceeded", null, false, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.jinhx.java.aspect;
+
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+
+/**
+ * 单个切点方法的元数据，每个Method和目标类只在第一次调用时通过反射构建一次，之后的调用直接读取
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public class TimeConsumingMetadata {
+
+    private final String className;
+
+    private final String methodName;
+
+    /**
+     * 统计标识，className#methodName
+     */
+    private final String tag;
+
+    private final String[] parameterNames;
+
+    /**
+     * 参数map的初始容量，保证放入所有参数时不扩容
+     */
+    private final int mapCapacity;
+
+    private final boolean printParams;
+
+    private final TimeConsumingLogPolicy logPolicy;
+
+    private final LatencyHistogram histogram;
+
+    public TimeConsumingMetadata(Class<?> targetClass, Method method, String[] parameterNames,
+                                 TimeConsumingProperties timeConsumingProperties, TimeConsumingRegistry timeConsumingRegistry) {
+        TimeConsuming timeConsuming = method.getAnnotation(TimeConsuming.class);
+        this.className = targetClass.getName();
+        this.methodName = method.getName();
+        this.tag = className + "#" + methodName;
+        this.parameterNames = parameterNames == null ? new String[0] : parameterNames;
+        this.mapCapacity = (int) (this.parameterNames.length / 0.75f) + 1;
+        this.printParams = timeConsuming.printParams();
+        this.logPolicy = new TimeConsumingLogPolicy(timeConsuming, timeConsumingProperties);
+        this.histogram = timeConsumingRegistry.histogram(tag);
+    }
+
+}
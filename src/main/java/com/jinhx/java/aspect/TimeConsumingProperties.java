@@ -0,0 +1,53 @@
+package com.jinhx.java.aspect;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * TimeConsuming全局配置
+ *
+ * 耗时总是记录到直方图，日志只在满足慢调用阈值或命中采样时打印。
+ * 默认采样率为1，即每次调用都打印，与之前的行为一致；
+ * 采样率设为0并配置慢调用阈值即为只打印慢调用。
+ * 注解@TimeConsuming上的同名属性优先于这里的全局配置。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "time-consuming")
+public class TimeConsumingProperties {
+
+    /**
+     * 日志采样率，取值0~1
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * 慢调用阈值，单位毫秒，超过该值必定打印日志，小于0表示不启用
+     */
+    private long slowThresholdMillis = -1;
+
+    /**
+     * 单个方法每秒最多打印的日志条数，超出后自动降低采样率，低于一半时逐步恢复，等于0表示不限制
+     */
+    private int logBudgetPerSecond = 0;
+
+    /**
+     * req和rsp序列化后的最大长度，超出部分截断，小于0表示不限制
+     */
+    private int maxPayloadLength = 2048;
+
+    /**
+     * 异步日志队列容量，队列满时丢弃日志
+     */
+    private int logQueueCapacity = 1024;
+
+    /**
+     * 异步日志线程数
+     */
+    private int logThreads = 1;
+
+}
@@ -0,0 +1,65 @@
+package com.jinhx.java.aspect;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * TimeConsuming耗时统计注册表，按className#methodName汇总，可随时查询分位数
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Component
+public class TimeConsumingRegistry {
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * 获取或创建直方图
+     *
+     * @param name className#methodName
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (Objects.nonNull(histogram)) {
+            return histogram;
+        }
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /**
+     * 查询单个方法的统计快照
+     *
+     * @param name className#methodName
+     * @return LatencySnapshot，不存在返回null
+     */
+    public LatencySnapshot getSnapshot(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return Objects.isNull(histogram) ? null : histogram.snapshot(name);
+    }
+
+    /**
+     * 查询所有方法的统计快照
+     *
+     * @return Map<String, LatencySnapshot>，按名称排序
+     */
+    public Map<String, LatencySnapshot> getSnapshots() {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot(name)));
+        return snapshots;
+    }
+
+    /**
+     * 清空所有统计数据，已缓存的直方图实例保持不变
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+}
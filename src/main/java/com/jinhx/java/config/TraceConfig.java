@@ -0,0 +1,44 @@
+package com.jinhx.java.config;
+
+import com.jinhx.java.trace.TraceFilter;
+import com.jinhx.java.trace.TraceProperties;
+import com.jinhx.java.trace.TraceRestTemplateInterceptor;
+import com.jinhx.java.util.TraceIdUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 链路追踪配置，注册请求traceId过滤器，并给通过RestTemplateBuilder创建的RestTemplate加上透传拦截器
+ * traceId生成方式总是生效，定时任务、消息消费等不经过过滤器的地方也按id-mode生成；trace.enabled只控制过滤器和拦截器
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Configuration
+public class TraceConfig {
+
+    public TraceConfig(TraceProperties traceProperties) {
+        TraceIdUtils.setGenerator(traceProperties.getIdMode());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "trace", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<TraceFilter> traceFilter(TraceProperties traceProperties) {
+        FilterRegistrationBean<TraceFilter> registration = new FilterRegistrationBean<>(new TraceFilter(traceProperties));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "trace", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RestTemplateCustomizer traceRestTemplateCustomizer(TraceProperties traceProperties) {
+        TraceRestTemplateInterceptor interceptor = new TraceRestTemplateInterceptor(traceProperties);
+        return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.jinhx.java.trace;
+
+import com.jinhx.java.util.TraceIdMode;
+import com.jinhx.java.util.TraceIdUtils;
+import org.slf4j.MDC;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 当前线程的链路上下文，保存在MDC中，子线程通过ThreadMdcUtils自动带上
+ *
+ * 入站优先解析W3C traceparent（00-traceId-parentId-flags），其次是自定义的traceId请求头，都没有时生成新的traceId。
+ * 出站时透传traceId请求头和traceparent，traceparent的parent-id为本次调用新生成的spanId，flags原样透传，
+ * 下游据此沿用上游的采样决定，不需要每个服务都全量采样。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class TraceContext {
+
+    /**
+     * 自定义traceId请求头
+     */
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    /**
+     * W3C Trace Context请求头
+     */
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    /**
+     * MDC中上游的spanId
+     */
+    public static final String PARENT_SPAN_ID = "parentSpanId";
+
+    /**
+     * MDC中的trace-flags，01表示上游已采样
+     */
+    public static final String TRACE_FLAGS = "traceFlags";
+
+    /**
+     * 没有上游traceparent时的trace-flags
+     */
+    public static final String DEFAULT_TRACE_FLAGS = "00";
+
+    /**
+     * 自定义traceId的最大长度，超出或包含非法字符时视为无效，避免日志注入
+     */
+    private static final int MAX_TRACE_ID_LENGTH = 64;
+
+    private static final String ZERO_TRACE_ID = "00000000000000000000000000000000";
+
+    private static final String ZERO_SPAN_ID = "0000000000000000";
+
+    /**
+     * 根据入站请求头设置MDC
+     *
+     * @param traceparent traceparent请求头，可以为null
+     * @param traceId     自定义traceId请求头，可以为null
+     * @return 最终使用的traceId
+     */
+    public static String begin(String traceparent, String traceId) {
+        String id = null;
+        String parentSpanId = null;
+        String flags = DEFAULT_TRACE_FLAGS;
+        if (isValidTraceparent(traceparent)) {
+            id = traceparent.substring(3, 35);
+            parentSpanId = traceparent.substring(36, 52);
+            flags = traceparent.substring(53, 55);
+        } else if (isValidTraceId(traceId)) {
+            id = traceId;
+        }
+        if (Objects.isNull(id)) {
+            id = TraceIdUtils.getTraceId();
+        }
+
+        MDC.put(TraceIdUtils.TRACE_ID, id);
+        MDC.put(TRACE_FLAGS, flags);
+        if (Objects.nonNull(parentSpanId)) {
+            MDC.put(PARENT_SPAN_ID, parentSpanId);
+        }
+        return id;
+    }
+
+    /**
+     * 清除begin()设置的MDC
+     */
+    public static void end() {
+        MDC.remove(TraceIdUtils.TRACE_ID);
+        MDC.remove(TRACE_FLAGS);
+        MDC.remove(PARENT_SPAN_ID);
+    }
+
+    /**
+     * 上游是否已采样
+     *
+     * @return boolean
+     */
+    public static boolean isSampled() {
+        String flags = MDC.get(TRACE_FLAGS);
+        return Objects.nonNull(flags) && (Character.digit(flags.charAt(flags.length() - 1), 16) & 1) == 1;
+    }
+
+    /**
+     * 生成出站请求的traceparent，当前线程没有traceId时返回null
+     *
+     * @return String
+     */
+    public static String traceparent() {
+        String traceId = MDC.get(TraceIdUtils.TRACE_ID);
+        if (Objects.isNull(traceId)) {
+            return null;
+        }
+        String w3cTraceId = toW3cTraceId(traceId);
+        if (Objects.isNull(w3cTraceId)) {
+            return null;
+        }
+        String flags = MDC.get(TRACE_FLAGS);
+        return new StringBuilder(55)
+                .append("00-")
+                .append(w3cTraceId)
+                .append('-')
+                .append(TraceIdMode.generateSpanId())
+                .append('-')
+                .append(Objects.isNull(flags) ? DEFAULT_TRACE_FLAGS : flags)
+                .toString();
+    }
+
+    /**
+     * 出站请求需要带上的请求头，用于RestTemplate以外的http客户端，例如hutool的HttpRequest.addHeaders()
+     *
+     * @param header 自定义traceId请求头
+     * @return Map<String, String>，当前线程没有traceId时为空
+     */
+    public static Map<String, String> outboundHeaders(String header) {
+        Map<String, String> headers = new LinkedHashMap<>(4);
+        String traceId = MDC.get(TraceIdUtils.TRACE_ID);
+        if (Objects.isNull(traceId)) {
+            return headers;
+        }
+        headers.put(header, traceId);
+        String traceparent = traceparent();
+        if (Objects.nonNull(traceparent)) {
+            headers.put(TRACEPARENT_HEADER, traceparent);
+        }
+        return headers;
+    }
+
+    /**
+     * 转换为traceparent中32位小写十六进制的trace-id，16位的traceId（FAST、SNOWFLAKE）按规范左侧补0，其余格式无法转换时返回null
+     */
+    private static String toW3cTraceId(String traceId) {
+        if (!isLowerHex(traceId, 0, traceId.length())) {
+            return null;
+        }
+        if (traceId.length() == 32) {
+            return ZERO_TRACE_ID.equals(traceId) ? null : traceId;
+        }
+        if (traceId.length() == 16) {
+            return ZERO_SPAN_ID.equals(traceId) ? null : ZERO_SPAN_ID + traceId;
+        }
+        return null;
+    }
+
+    private static boolean isValidTraceparent(String traceparent) {
+        // version(2)-trace-id(32)-parent-id(16)-flags(2)，更高版本可能在后面追加字段
+        if (Objects.isNull(traceparent) || traceparent.length() < 55) {
+            return false;
+        }
+        if (traceparent.length() > 55 && traceparent.charAt(55) != '-') {
+            return false;
+        }
+        if (traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return false;
+        }
+        if (!isLowerHex(traceparent, 0, 2) || traceparent.startsWith("ff")) {
+            return false;
+        }
+        return isLowerHex(traceparent, 3, 35) && isLowerHex(traceparent, 36, 52) && isLowerHex(traceparent, 53, 55)
+                && !traceparent.regionMatches(3, ZERO_TRACE_ID, 0, 32)
+                && !traceparent.regionMatches(36, ZERO_SPAN_ID, 0, 16);
+    }
+
+    private static boolean isValidTraceId(String traceId) {
+        if (Objects.isNull(traceId) || traceId.isEmpty() || traceId.length() > MAX_TRACE_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < traceId.length(); i++) {
+            char c = traceId.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLowerHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
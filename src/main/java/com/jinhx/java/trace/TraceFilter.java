@@ -0,0 +1,64 @@
+package com.jinhx.java.trace;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * 请求traceId过滤器，以最高优先级注册，后续的过滤器、拦截器和业务代码的日志都能带上traceId
+ *
+ * 异步请求再次分派时从请求属性中取回第一次确定的traceId，保证同一个请求只有一个traceId。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class TraceFilter extends OncePerRequestFilter {
+
+    private static final String TRACE_ID_ATTRIBUTE = TraceFilter.class.getName() + ".TRACE_ID";
+
+    private final TraceProperties traceProperties;
+
+    public TraceFilter(TraceProperties traceProperties) {
+        this.traceProperties = traceProperties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Object dispatchedTraceId = request.getAttribute(TRACE_ID_ATTRIBUTE);
+        String traceId;
+        if (Objects.nonNull(dispatchedTraceId)) {
+            traceId = TraceContext.begin(request.getHeader(TraceContext.TRACEPARENT_HEADER), (String) dispatchedTraceId);
+        } else {
+            traceId = TraceContext.begin(request.getHeader(TraceContext.TRACEPARENT_HEADER),
+                    request.getHeader(traceProperties.getHeader()));
+            request.setAttribute(TRACE_ID_ATTRIBUTE, traceId);
+            // 响应可能在业务代码中提前提交，所以在执行前设置响应头
+            if (traceProperties.isEchoResponse()) {
+                response.setHeader(traceProperties.getHeader(), traceId);
+            }
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TraceContext.end();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+}
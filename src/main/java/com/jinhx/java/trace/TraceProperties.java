@@ -0,0 +1,39 @@
+package com.jinhx.java.trace;
+
+import com.jinhx.java.util.TraceIdMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 链路追踪配置
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "trace")
+public class TraceProperties {
+
+    /**
+     * 是否启用请求traceId过滤器和出站请求头透传
+     */
+    private boolean enabled = true;
+
+    /**
+     * traceId生成方式，使用traceparent透传时建议W3C，不受enabled影响
+     */
+    private TraceIdMode idMode = TraceIdMode.W3C;
+
+    /**
+     * 读取和透传traceId的请求头，traceparent总是会读取和透传
+     */
+    private String header = TraceContext.TRACE_ID_HEADER;
+
+    /**
+     * 是否在响应头中返回traceId
+     */
+    private boolean echoResponse = true;
+
+}
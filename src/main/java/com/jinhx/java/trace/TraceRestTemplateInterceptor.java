@@ -0,0 +1,38 @@
+package com.jinhx.java.trace;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * RestTemplate出站请求透传traceId和traceparent，请求中已经设置的同名请求头不覆盖
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class TraceRestTemplateInterceptor implements ClientHttpRequestInterceptor {
+
+    private final TraceProperties traceProperties;
+
+    public TraceRestTemplateInterceptor(TraceProperties traceProperties) {
+        this.traceProperties = traceProperties;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        for (Map.Entry<String, String> entry : TraceContext.outboundHeaders(traceProperties.getHeader()).entrySet()) {
+            if (!headers.containsKey(entry.getKey())) {
+                headers.set(entry.getKey(), entry.getValue());
+            }
+        }
+        return execution.execute(request, body);
+    }
+
+}
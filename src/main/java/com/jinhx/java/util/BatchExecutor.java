@@ -0,0 +1,449 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 并行批量执行器
+ *
+ * 把集合按ListUtil分组后提交到线程池并行执行，按分组顺序合并结果，
+ * 子线程自动带上调用线程的MDC（traceId）。
+ * 同时执行中的分组数量受maxInFlight限制，超出时调用线程阻塞等待，不会把任务无限堆积到线程池队列。
+ *
+ * <pre>
+ * BatchExecutor batchExecutor = BatchExecutor.builder()
+ *         .executor(threadPoolExecutor)
+ *         .chunkSize(500)
+ *         .maxInFlight(8)
+ *         .chunkTimeout(3, TimeUnit.SECONDS)
+ *         .build();
+ * List&lt;User&gt; users = batchExecutor.execute(userIds, userMapper::selectBatchIds).getOrThrow();
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+public class BatchExecutor {
+
+    /**
+     * 分组失败时的处理策略
+     */
+    public enum FailurePolicy {
+
+        /**
+         * 任一分组失败立即返回，未开始的分组不再执行，执行中的分组被中断
+         */
+        FAIL_FAST,
+
+        /**
+         * 所有分组都执行完，收集全部异常
+         */
+        COLLECT_ERRORS
+
+    }
+
+    /**
+     * 分组超时检测，只负责触发超时，不执行业务逻辑
+     */
+    private static final ScheduledThreadPoolExecutor TIMEOUT_SCHEDULER;
+
+    static {
+        TIMEOUT_SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "batch-executor-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        TIMEOUT_SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Executor executor;
+
+    private final int chunkSize;
+
+    private final int parallelism;
+
+    private final int maxInFlight;
+
+    private final long chunkTimeoutNanos;
+
+    private final FailurePolicy failurePolicy;
+
+    private BatchExecutor(Builder builder) {
+        this.executor = Objects.isNull(builder.executor) ? ForkJoinPool.commonPool() : builder.executor;
+        this.chunkSize = builder.chunkSize;
+        this.parallelism = builder.parallelism > 0 ? builder.parallelism : ForkJoinPool.getCommonPoolParallelism();
+        this.maxInFlight = builder.maxInFlight > 0 ? builder.maxInFlight : this.parallelism;
+        this.chunkTimeoutNanos = builder.chunkTimeoutNanos;
+        this.failurePolicy = builder.failurePolicy;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 并行执行并按分组顺序合并结果
+     *
+     * @param list     数据
+     * @param function 每组数据的处理逻辑，例如批量查询
+     * @return 执行结果
+     */
+    public <T, R> BatchResult<R> execute(List<T> list, Function<List<T>, List<R>> function) {
+        if (Objects.isNull(list) || list.isEmpty()) {
+            return new BatchResult<>(Collections.emptyList(), Collections.emptyList());
+        }
+
+        List<List<T>> chunks = chunkSize > 0 ? ListUtil.partitionView(list, chunkSize) : ListUtil.splitBalanced(list, parallelism);
+        int chunkCount = chunks.size();
+        List<ChunkTask<T, R>> tasks = new ArrayList<>(chunkCount);
+        AtomicBoolean failed = new AtomicBoolean();
+        Semaphore semaphore = new Semaphore(maxInFlight);
+        Map<String, String> context = ThreadMdcUtils.snapshot();
+
+        try {
+            for (int i = 0; i < chunkCount; i++) {
+                // 背压：执行中的分组达到上限时在这里等待
+                semaphore.acquire();
+                if (failurePolicy == FailurePolicy.FAIL_FAST && failed.get()) {
+                    semaphore.release();
+                    break;
+                }
+                ChunkTask<T, R> task = new ChunkTask<>(i, chunks.get(i), function, failed, semaphore);
+                tasks.add(task);
+                try {
+                    executor.execute(ThreadMdcUtils.wrap(task, context));
+                } catch (RuntimeException e) {
+                    // 线程池拒绝，当作该分组失败
+                    task.fail(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(ChunkTask::cancel);
+            throw new RuntimeException("批量执行被中断", e);
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = tasks.get(i).future;
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures);
+        if (failurePolicy == FailurePolicy.FAIL_FAST) {
+            CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+            for (CompletableFuture<?> future : futures) {
+                future.whenComplete((r, e) -> {
+                    if (Objects.nonNull(e)) {
+                        firstFailure.completeExceptionally(e);
+                    }
+                });
+            }
+            CompletableFuture.anyOf(all, firstFailure).handle((r, e) -> null).join();
+            if (firstFailure.isCompletedExceptionally()) {
+                tasks.forEach(ChunkTask::cancel);
+            }
+        } else {
+            all.handle((r, e) -> null).join();
+        }
+
+        return merge(tasks);
+    }
+
+    /**
+     * 并行执行，没有返回值
+     *
+     * @param list     数据
+     * @param consumer 每组数据的处理逻辑，例如批量写入
+     * @return 执行结果
+     */
+    public <T> BatchResult<Void> run(List<T> list, Consumer<List<T>> consumer) {
+        return execute(list, chunk -> {
+            consumer.accept(chunk);
+            return Collections.emptyList();
+        });
+    }
+
+    private <T, R> BatchResult<R> merge(List<ChunkTask<T, R>> tasks) {
+        int size = 0;
+        List<ChunkError> errors = new ArrayList<>();
+        for (ChunkTask<T, R> task : tasks) {
+            if (task.future.isDone() && !task.future.isCompletedExceptionally()) {
+                List<R> result = task.future.join();
+                size += Objects.isNull(result) ? 0 : result.size();
+            } else if (task.future.isDone() && !task.future.isCancelled()) {
+                // 被FAIL_FAST取消的分组不算作失败原因
+                errors.add(new ChunkError(task.index, task.getError()));
+            }
+        }
+        List<R> results = new ArrayList<>(size);
+        for (ChunkTask<T, R> task : tasks) {
+            if (task.future.isDone() && !task.future.isCompletedExceptionally()) {
+                List<R> result = task.future.join();
+                if (Objects.nonNull(result)) {
+                    results.addAll(result);
+                }
+            }
+        }
+        return new BatchResult<>(results, errors);
+    }
+
+    /**
+     * 单个分组的执行单元，负责超时中断
+     */
+    private class ChunkTask<T, R> implements Runnable {
+
+        private final int index;
+
+        private final List<T> chunk;
+
+        private final Function<List<T>, List<R>> function;
+
+        private final AtomicBoolean failed;
+
+        private final Semaphore semaphore;
+
+        private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Thread runner;
+
+        private boolean interrupted;
+
+        ChunkTask(int index, List<T> chunk, Function<List<T>, List<R>> function, AtomicBoolean failed, Semaphore semaphore) {
+            this.index = index;
+            this.chunk = chunk;
+            this.function = function;
+            this.failed = failed;
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone() || (failurePolicy == FailurePolicy.FAIL_FAST && failed.get())) {
+                future.cancel(false);
+                release();
+                return;
+            }
+
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            ScheduledFuture<?> timeout = null;
+            if (chunkTimeoutNanos > 0) {
+                timeout = TIMEOUT_SCHEDULER.schedule(() -> fail(new TimeoutException("chunk " + index + " timeout")),
+                        chunkTimeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            try {
+                future.complete(function.apply(chunk));
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                if (Objects.nonNull(timeout)) {
+                    timeout.cancel(false);
+                }
+                synchronized (this) {
+                    runner = null;
+                    // 清除超时或取消留下的中断标记，避免影响线程池中的下一个任务
+                    if (interrupted) {
+                        Thread.interrupted();
+                    }
+                }
+                release();
+            }
+        }
+
+        void fail(Throwable e) {
+            if (future.completeExceptionally(e)) {
+                failed.set(true);
+                if (!(e instanceof TimeoutException)) {
+                    log.error("act=BatchExecutor chunk={} failed", index, e);
+                }
+                interrupt();
+            }
+            synchronized (this) {
+                if (Objects.nonNull(runner)) {
+                    // 执行中的分组由run()的finally释放
+                    return;
+                }
+            }
+            release();
+        }
+
+        void cancel() {
+            if (future.cancel(false)) {
+                interrupt();
+            }
+        }
+
+        Throwable getError() {
+            try {
+                future.join();
+                return null;
+            } catch (CompletionException e) {
+                return e.getCause();
+            } catch (Throwable e) {
+                return e;
+            }
+        }
+
+        private synchronized void interrupt() {
+            if (Objects.nonNull(runner) && runner != Thread.currentThread()) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+
+    }
+
+    /**
+     * 批量执行结果
+     */
+    @Getter
+    public static class BatchResult<R> {
+
+        /**
+         * 成功分组的结果，按分组顺序合并
+         */
+        private final List<R> results;
+
+        /**
+         * 失败分组的异常，按分组顺序排列
+         */
+        private final List<ChunkError> errors;
+
+        BatchResult(List<R> results, List<ChunkError> errors) {
+            this.results = results;
+            this.errors = errors;
+        }
+
+        public boolean isSuccess() {
+            return errors.isEmpty();
+        }
+
+        /**
+         * 全部成功时返回结果，否则抛出第一个异常，其余异常作为suppressed附加
+         *
+         * @return List<R>
+         */
+        public List<R> getOrThrow() {
+            if (isSuccess()) {
+                return results;
+            }
+            ChunkError first = errors.get(0);
+            RuntimeException exception = new RuntimeException("批量执行失败 chunk=" + first.getChunkIndex(), first.getError());
+            for (int i = 1; i < errors.size(); i++) {
+                exception.addSuppressed(errors.get(i).getError());
+            }
+            throw exception;
+        }
+
+    }
+
+    /**
+     * 失败分组
+     */
+    @Getter
+    public static class ChunkError {
+
+        private final int chunkIndex;
+
+        private final Throwable error;
+
+        ChunkError(int chunkIndex, Throwable error) {
+            this.chunkIndex = chunkIndex;
+            this.error = error;
+        }
+
+    }
+
+    public static class Builder {
+
+        private Executor executor;
+
+        private int chunkSize;
+
+        private int parallelism;
+
+        private int maxInFlight;
+
+        private long chunkTimeoutNanos;
+
+        private FailurePolicy failurePolicy = FailurePolicy.FAIL_FAST;
+
+        /**
+         * 执行线程池，默认ForkJoinPool.commonPool()，涉及数据库、Redis等阻塞调用时应使用独立的有界线程池
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 每组大小，大于0时按固定大小分组（不复制元素），否则按parallelism均衡分组
+         */
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * 未指定chunkSize时分为几组，默认commonPool的并行度
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * 同时执行中的最大分组数，默认等于parallelism
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * 单个分组从开始执行算起的超时时间，超时后该分组失败并中断执行线程，小于等于0表示不限制
+         */
+        public Builder chunkTimeout(long timeout, TimeUnit unit) {
+            this.chunkTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public Builder failurePolicy(FailurePolicy failurePolicy) {
+            this.failurePolicy = failurePolicy;
+            return this;
+        }
+
+        public BatchExecutor build() {
+            return new BatchExecutor(this);
+        }
+
+    }
+
+}
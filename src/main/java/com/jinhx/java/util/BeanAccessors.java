@@ -0,0 +1,119 @@
+package com.jinhx.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 通过LambdaMetafactory把getter、setter和无参构造方法转换成Function、BiConsumer和Supplier，
+ * 调用开销与直接调用接近，可以被JIT内联。
+ *
+ * 生成的lambda类以当前类为宿主，只有public类的public方法、且相关类型对当前类加载器可见时才能生成，
+ * 其余情况（非public类、devtools等子类加载器加载的类）退回反射调用。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+final class BeanAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType BI_CONSUMER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType SUPPLIER_TYPE = MethodType.methodType(Object.class);
+
+    private BeanAccessors() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Method method) {
+        if (canGenerate(method.getDeclaringClass(), method.getModifiers(), method.getReturnType())) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                        FUNCTION_TYPE, handle, MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()),
+                                method.getDeclaringClass()));
+                return (Function<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                log.debug("generate getter for {} failed, fallback to reflection", method, e);
+            }
+        }
+        ReflectionUtils.makeAccessible(method);
+        return bean -> ReflectionUtils.invokeMethod(method, bean);
+    }
+
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(Method method) {
+        Class<?> parameterType = method.getParameterTypes()[0];
+        if (canGenerate(method.getDeclaringClass(), method.getModifiers(), parameterType)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                // 链式setter的返回值直接丢弃
+                MethodType instantiatedType = MethodType.methodType(void.class, method.getDeclaringClass(),
+                        ClassUtils.resolvePrimitiveIfNecessary(parameterType));
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+                        BI_CONSUMER_TYPE, handle, instantiatedType);
+                return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                log.debug("generate setter for {} failed, fallback to reflection", method, e);
+            }
+        }
+        ReflectionUtils.makeAccessible(method);
+        return (bean, value) -> ReflectionUtils.invokeMethod(method, bean, value);
+    }
+
+    /**
+     * 无参构造方法，没有无参构造方法时返回null
+     */
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> constructor(Class<?> type) {
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        if (!Modifier.isAbstract(type.getModifiers()) && canGenerate(type, constructor.getModifiers(), type)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                        SUPPLIER_TYPE, handle, MethodType.methodType(type));
+                return (Supplier<Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                log.debug("generate constructor for {} failed, fallback to reflection", type, e);
+            }
+        }
+        ReflectionUtils.makeAccessible(constructor);
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (Exception e) {
+                ReflectionUtils.handleReflectionException(e);
+                return null;
+            }
+        };
+    }
+
+    private static boolean canGenerate(Class<?> declaringClass, int modifiers, Class<?> valueType) {
+        ClassLoader classLoader = BeanAccessors.class.getClassLoader();
+        return Modifier.isPublic(modifiers) && Modifier.isPublic(declaringClass.getModifiers())
+                && ClassUtils.isVisible(declaringClass, classLoader)
+                && (valueType.isPrimitive() || ClassUtils.isVisible(valueType, classLoader));
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.jinhx.java.util;
+
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 源类型到目标类型的属性复制计划，每对类型只创建一次
+ *
+ * 属性匹配规则与spring的BeanUtils.copyProperties相同：目标的可写属性、源的同名可读属性、类型（含泛型）可赋值。
+ * 区别是源属性为null且目标属性为基本类型时跳过，spring会抛出异常。
+ * 缓存按源类型、目标类型两级ConcurrentReferenceHashMap保存，命中时只有两次get，不创建key对象；
+ * 与spring的BeanUtils一样使用软引用，不会让热部署、重新部署后的旧ClassLoader和为其生成的访问器一直无法回收。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class BeanCopier {
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, BeanCopier>> CACHE = new ConcurrentReferenceHashMap<>();
+
+    private final BeanProperties targetProperties;
+
+    /**
+     * 按顺序一一对应的源属性和目标属性
+     */
+    private final BeanProperty[] sources;
+
+    private final BeanProperty[] targets;
+
+    private BeanCopier(Class<?> sourceType, Class<?> targetType) {
+        BeanProperties sourceProperties = BeanProperties.of(sourceType);
+        this.targetProperties = BeanProperties.of(targetType);
+        List<BeanProperty> sourceList = new ArrayList<>();
+        List<BeanProperty> targetList = new ArrayList<>();
+        for (BeanProperty target : targetProperties.getProperties()) {
+            if (!target.isWritable()) {
+                continue;
+            }
+            BeanProperty source = sourceProperties.getProperty(target.getName());
+            if (Objects.isNull(source) || !source.isReadable()) {
+                continue;
+            }
+            if (target.getWriteType().isAssignableFrom(source.getReadType())) {
+                sourceList.add(source);
+                targetList.add(target);
+            }
+        }
+        this.sources = sourceList.toArray(new BeanProperty[0]);
+        this.targets = targetList.toArray(new BeanProperty[0]);
+    }
+
+    static BeanCopier of(Class<?> sourceType, Class<?> targetType) {
+        ConcurrentMap<Class<?>, BeanCopier> copiers = CACHE.get(sourceType);
+        if (Objects.isNull(copiers)) {
+            copiers = CACHE.computeIfAbsent(sourceType, k -> new ConcurrentReferenceHashMap<>());
+        }
+        BeanCopier copier = copiers.get(targetType);
+        if (Objects.isNull(copier)) {
+            copier = copiers.computeIfAbsent(targetType, k -> new BeanCopier(sourceType, k));
+        }
+        return copier;
+    }
+
+    /**
+     * 创建目标类型实例
+     */
+    Object newTarget() {
+        return targetProperties.newInstance();
+    }
+
+    /**
+     * 复制属性
+     *
+     * @param source           数据源
+     * @param target           目标对象
+     * @param ignoreProperties 需要忽略的属性，可以为null
+     */
+    void copy(Object source, Object target, String[] ignoreProperties) {
+        if (Objects.isNull(ignoreProperties) || ignoreProperties.length == 0) {
+            copy(source, target);
+            return;
+        }
+        Set<String> ignores = new HashSet<>(Arrays.asList(ignoreProperties));
+        for (int i = 0; i < targets.length; i++) {
+            BeanProperty targetProperty = targets[i];
+            if (!ignores.contains(targetProperty.getName())) {
+                copy(sources[i], targetProperty, source, target);
+            }
+        }
+    }
+
+    void copy(Object source, Object target) {
+        for (int i = 0; i < targets.length; i++) {
+            copy(sources[i], targets[i], source, target);
+        }
+    }
+
+    /**
+     * 复制属性，跳过源中值为null的属性，只遍历一遍
+     *
+     * @param source 数据源
+     * @param target 目标对象
+     */
+    void copyIgnoreNull(Object source, Object target) {
+        for (int i = 0; i < targets.length; i++) {
+            Object value = sources[i].get(source);
+            if (Objects.nonNull(value)) {
+                targets[i].set(target, value);
+            }
+        }
+    }
+
+    /**
+     * 深度合并，跳过源中值为null的属性，规则见BeanMerger
+     *
+     * @param source  数据源
+     * @param target  目标对象
+     * @param merging 正在合并的源对象，避免循环引用导致死循环
+     */
+    void merge(Object source, Object target, Set<Object> merging) {
+        for (int i = 0; i < targets.length; i++) {
+            BeanProperty targetProperty = targets[i];
+            Object value = sources[i].get(source);
+            if (Objects.isNull(value)) {
+                continue;
+            }
+            Object current = targetProperty.isReadable() ? targetProperty.get(target) : null;
+            Object merged = BeanMerger.mergeValue(value, current, merging);
+            if (merged != current) {
+                targetProperty.set(target, merged);
+            }
+        }
+    }
+
+    /**
+     * 是否有可以复制的属性
+     */
+    boolean isEmpty() {
+        return targets.length == 0;
+    }
+
+    private static void copy(BeanProperty sourceProperty, BeanProperty targetProperty, Object source, Object target) {
+        Object value = sourceProperty.get(source);
+        if (Objects.isNull(value) && targetProperty.isPrimitive()) {
+            return;
+        }
+        targetProperty.set(target, value);
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.jinhx.java.util;
+
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 深度合并，源中为null的值一律跳过
+ *
+ * 目标值为null或者是简单类型时直接替换；
+ * Map按key合并，两边同一个key的值继续按这里的规则合并；
+ * Collection取并集，保留目标中原有元素的顺序，新元素追加在后面；
+ * 其余对象按属性递归合并，两个类型之间没有可复制的属性时直接替换。
+ * 目标中的Map和Collection不可修改时复制一份合并后再设置回去。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class BeanMerger {
+
+    /**
+     * List元素超过该数量时用HashSet判断是否已存在
+     */
+    private static final int LINEAR_CONTAINS_THRESHOLD = 16;
+
+    private BeanMerger() {
+    }
+
+    static void merge(Object source, Object target, Set<Object> merging) {
+        if (!merging.add(source)) {
+            return;
+        }
+        try {
+            BeanCopier.of(source.getClass(), target.getClass()).merge(source, target, merging);
+        } finally {
+            merging.remove(source);
+        }
+    }
+
+    /**
+     * 合并一个值
+     *
+     * @param value   源值，不为null
+     * @param current 目标中的当前值
+     * @param merging 正在合并的源对象
+     * @return 合并后的值，与current相同时表示已经原地合并，不需要再设置
+     */
+    @SuppressWarnings("unchecked")
+    static Object mergeValue(Object value, Object current, Set<Object> merging) {
+        if (Objects.isNull(current) || current == value) {
+            return value;
+        }
+        if (value instanceof Map && current instanceof Map) {
+            return mergeMap((Map<Object, Object>) value, (Map<Object, Object>) current, merging);
+        }
+        if (value instanceof Collection && current instanceof Collection) {
+            return mergeCollection((Collection<Object>) value, (Collection<Object>) current);
+        }
+        if (isBean(value.getClass()) && isBean(current.getClass())
+                && !BeanCopier.of(value.getClass(), current.getClass()).isEmpty()) {
+            merge(value, current, merging);
+            return current;
+        }
+        return value;
+    }
+
+    private static Map<Object, Object> mergeMap(Map<Object, Object> source, Map<Object, Object> target, Set<Object> merging) {
+        try {
+            mergeMapInPlace(source, target, merging);
+            return target;
+        } catch (UnsupportedOperationException e) {
+            Map<Object, Object> copy = new LinkedHashMap<>(target);
+            mergeMapInPlace(source, copy, merging);
+            return copy;
+        }
+    }
+
+    private static void mergeMapInPlace(Map<Object, Object> source, Map<Object, Object> target, Set<Object> merging) {
+        for (Map.Entry<Object, Object> entry : source.entrySet()) {
+            Object value = entry.getValue();
+            if (Objects.isNull(value)) {
+                continue;
+            }
+            Object current = target.get(entry.getKey());
+            Object merged = mergeValue(value, current, merging);
+            if (merged != current) {
+                target.put(entry.getKey(), merged);
+            }
+        }
+    }
+
+    private static Collection<Object> mergeCollection(Collection<Object> source, Collection<Object> target) {
+        Collection<Object> missing = missing(source, target);
+        if (missing.isEmpty()) {
+            return target;
+        }
+        try {
+            target.addAll(missing);
+            return target;
+        } catch (UnsupportedOperationException e) {
+            Collection<Object> copy = target instanceof Set ? new LinkedHashSet<>(target) : new ArrayList<>(target);
+            copy.addAll(missing);
+            return copy;
+        }
+    }
+
+    /**
+     * 源中有而目标中没有的元素
+     */
+    private static Collection<Object> missing(Collection<Object> source, Collection<Object> target) {
+        Collection<Object> existing = target instanceof Set || target.size() <= LINEAR_CONTAINS_THRESHOLD
+                ? target : new HashSet<>(target);
+        List<Object> missing = new ArrayList<>();
+        Set<Object> added = source instanceof Set ? null : new HashSet<>();
+        for (Object element : source) {
+            if (!existing.contains(element) && (Objects.isNull(added) || added.add(element))) {
+                missing.add(element);
+            }
+        }
+        return missing;
+    }
+
+    private static boolean isBean(Class<?> type) {
+        return !BeanUtils.isSimpleValueType(type) && !type.isArray()
+                && !Map.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type);
+    }
+
+}
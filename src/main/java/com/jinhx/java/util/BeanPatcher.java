@@ -0,0 +1,113 @@
+package com.jinhx.java.util;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 按Map修改对象，语义参考JSON Merge Patch（RFC 7396）
+ *
+ * key可以是属性名，也可以是用.分隔的嵌套路径，例如address.city；
+ * 值为Map且属性是普通对象时递归修改该对象，属性是Map时按key合并；
+ * 值为null时把属性设为null（基本类型属性跳过），Map中则删除该key，其余值直接替换，类型不一致时用spring的ConversionService转换；
+ * 路径中间的对象为null时用无参构造方法创建。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class BeanPatcher {
+
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+    private BeanPatcher() {
+    }
+
+    static void patch(Object target, Map<String, ?> patch) {
+        for (Map.Entry<String, ?> entry : patch.entrySet()) {
+            String path = entry.getKey();
+            Object current = target;
+            int start = 0;
+            int dot;
+            while ((dot = path.indexOf('.', start)) >= 0) {
+                current = child(current, path.substring(start, dot));
+                start = dot + 1;
+            }
+            set(current, path.substring(start), entry.getValue());
+        }
+    }
+
+    /**
+     * 获取路径中间的对象，为null时创建
+     */
+    @SuppressWarnings("unchecked")
+    private static Object child(Object parent, String name) {
+        if (parent instanceof Map) {
+            return ((Map<Object, Object>) parent).computeIfAbsent(name, k -> new LinkedHashMap<>());
+        }
+        BeanProperty property = BeanProperties.of(parent.getClass()).getProperty(name);
+        Object child = Objects.nonNull(property) && property.isReadable() ? property.get(parent) : null;
+        if (Objects.isNull(child)) {
+            property = property(parent, name);
+            child = Map.class.isAssignableFrom(property.getType()) ? new LinkedHashMap<>()
+                    : BeanProperties.of(property.getType()).newInstance();
+            property.set(parent, child);
+        }
+        return child;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void set(Object bean, String name, Object value) {
+        if (bean instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) bean;
+            Object current = map.get(name);
+            if (Objects.isNull(value)) {
+                map.remove(name);
+            } else if (value instanceof Map && current instanceof Map) {
+                patch(current, (Map<String, ?>) value);
+            } else {
+                map.put(name, value);
+            }
+            return;
+        }
+
+        BeanProperty property = property(bean, name);
+        if (Objects.isNull(value)) {
+            if (!property.isPrimitive()) {
+                property.set(bean, null);
+            }
+            return;
+        }
+        Class<?> type = property.getType();
+        if (value instanceof Map && !BeanUtils.isSimpleValueType(type) && !Collection.class.isAssignableFrom(type)) {
+            Object current = property.isReadable() ? property.get(bean) : null;
+            if (Objects.isNull(current)) {
+                current = Map.class.isAssignableFrom(type) ? new LinkedHashMap<>() : BeanProperties.of(type).newInstance();
+                property.set(bean, current);
+            }
+            patch(current, (Map<String, ?>) value);
+            return;
+        }
+        if (!ClassUtils.isAssignableValue(type, value)) {
+            value = CONVERSION_SERVICE.convert(value, TypeDescriptor.forObject(value),
+                    new TypeDescriptor(new MethodParameter(property.getWriteMethod(), 0)));
+        }
+        property.set(bean, value);
+    }
+
+    private static BeanProperty property(Object bean, String name) {
+        BeanProperty property = BeanProperties.of(bean.getClass()).getProperty(name);
+        if (Objects.isNull(property) || !property.isWritable()) {
+            throw new IllegalArgumentException("Invalid property '" + name + "' of bean class [" + bean.getClass().getName() + "]");
+        }
+        return property;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.jinhx.java.util;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 一个类的全部属性，按类缓存，属性的发现规则与spring的BeanUtils相同（支持链式setter）
+ * 缓存使用软引用的ConcurrentReferenceHashMap，不会阻止旧ClassLoader被回收
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class BeanProperties {
+
+    private static final ConcurrentMap<Class<?>, BeanProperties> CACHE = new ConcurrentReferenceHashMap<>();
+
+    private final Class<?> type;
+
+    private final BeanProperty[] properties;
+
+    private final Map<String, BeanProperty> propertyMap;
+
+    private volatile Supplier<Object> constructor;
+
+    private BeanProperties(Class<?> type) {
+        this.type = type;
+        PropertyDescriptor[] descriptors = BeanUtils.getPropertyDescriptors(type);
+        List<BeanProperty> list = new ArrayList<>(descriptors.length);
+        Map<String, BeanProperty> map = new HashMap<>((int) (descriptors.length / 0.75f) + 1);
+        for (PropertyDescriptor descriptor : descriptors) {
+            if (Objects.isNull(descriptor.getPropertyType())) {
+                // 只有索引读写方法的属性
+                continue;
+            }
+            BeanProperty property = new BeanProperty(descriptor.getName(), descriptor.getPropertyType(),
+                    descriptor.getReadMethod(), descriptor.getWriteMethod());
+            list.add(property);
+            map.put(property.getName(), property);
+        }
+        this.properties = list.toArray(new BeanProperty[0]);
+        this.propertyMap = map;
+    }
+
+    static BeanProperties of(Class<?> type) {
+        BeanProperties beanProperties = CACHE.get(type);
+        if (Objects.nonNull(beanProperties)) {
+            return beanProperties;
+        }
+        return CACHE.computeIfAbsent(type, BeanProperties::new);
+    }
+
+    BeanProperty[] getProperties() {
+        return properties;
+    }
+
+    BeanProperty getProperty(String name) {
+        return propertyMap.get(name);
+    }
+
+    /**
+     * 通过无参构造方法创建实例
+     */
+    Object newInstance() {
+        Supplier<Object> supplier = constructor;
+        if (Objects.isNull(supplier)) {
+            supplier = BeanAccessors.constructor(type);
+            if (Objects.isNull(supplier)) {
+                throw new IllegalArgumentException(type.getName() + " has no default constructor");
+            }
+            constructor = supplier;
+        }
+        return supplier.get();
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.jinhx.java.util;
+
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * bean的一个属性，getter和setter在创建时生成好，之后读写不再经过反射
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class BeanProperty {
+
+    private final String name;
+
+    private final Class<?> type;
+
+    private final Method readMethod;
+
+    private final Method writeMethod;
+
+    private final Function<Object, Object> getter;
+
+    private final BiConsumer<Object, Object> setter;
+
+    BeanProperty(String name, Class<?> type, Method readMethod, Method writeMethod) {
+        this.name = name;
+        this.type = type;
+        this.readMethod = readMethod;
+        this.writeMethod = writeMethod;
+        this.getter = readMethod == null ? null : BeanAccessors.getter(readMethod);
+        this.setter = writeMethod == null ? null : BeanAccessors.setter(writeMethod);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    boolean isReadable() {
+        return getter != null;
+    }
+
+    boolean isWritable() {
+        return setter != null;
+    }
+
+    /**
+     * 基本类型属性不能设置null
+     */
+    boolean isPrimitive() {
+        return type.isPrimitive();
+    }
+
+    Method getWriteMethod() {
+        return writeMethod;
+    }
+
+    ResolvableType getReadType() {
+        return ResolvableType.forMethodReturnType(readMethod);
+    }
+
+    ResolvableType getWriteType() {
+        return ResolvableType.forMethodParameter(writeMethod, 0);
+    }
+
+    Object get(Object bean) {
+        return getter.apply(bean);
+    }
+
+    void set(Object bean, Object value) {
+        setter.accept(bean, value);
+    }
+
+}
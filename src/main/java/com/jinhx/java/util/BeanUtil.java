@@ -1,20 +1,30 @@
 package com.jinhx.java.util;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
-import java.beans.PropertyDescriptor;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * bean相关的操作
+ *
+ * 复制和转换使用按（源类型，目标类型）缓存的复制计划，getter、setter和构造方法由LambdaMetafactory生成，
+ * 不再每次通过PropertyDescriptor反射调用。属性匹配规则与spring的BeanUtils.copyProperties相同。
  */
 @Slf4j
 public class BeanUtil {
 
+    /**
+     * 并行批量转换的最小元素个数，单个元素转换约100纳秒，数量太少时拆分任务的开销大于收益
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
 
     /**
      * 属性复制（浅拷贝）
@@ -23,7 +33,9 @@ public class BeanUtil {
      * @param target 目标对象
      */
     public static void copy(Object src, Object target) {
-        BeanUtils.copyProperties(src, target);
+        Assert.notNull(src, "Source must not be null");
+        Assert.notNull(target, "Target must not be null");
+        BeanCopier.of(src.getClass(), target.getClass()).copy(src, target);
     }
 
     /**
@@ -33,7 +45,40 @@ public class BeanUtil {
      * @param target 目标对象
      */
     public static void copyIgnoreNull(Object src, Object target) {
-        BeanUtils.copyProperties(src, target, getNullPropertyNames(src));
+        Assert.notNull(src, "Source must not be null");
+        Assert.notNull(target, "Target must not be null");
+        BeanCopier.of(src.getClass(), target.getClass()).copyIgnoreNull(src, target);
+    }
+
+    /**
+     * 深度合并，忽略数据源的空值字段
+     * Map按key合并，Collection取并集，普通对象按属性递归合并，其余值直接替换
+     *
+     * @param src    数据源
+     * @param target 目标对象
+     */
+    public static void deepMerge(Object src, Object target) {
+        Assert.notNull(src, "Source must not be null");
+        Assert.notNull(target, "Target must not be null");
+        BeanMerger.merge(src, target, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * 按Map修改对象，key支持嵌套路径，例如address.city，值为null时把属性设为null，目标为Map时删除该key
+     *
+     * @param target 目标对象
+     * @param patch  需要修改的属性和值
+     */
+    public static void patch(Object target, Map<String, ?> patch) {
+        if (Objects.isNull(target) || CollectionUtils.isEmpty(patch)) {
+            return;
+        }
+        try {
+            BeanPatcher.patch(target, patch);
+        } catch (Exception e) {
+            log.error("patch target={} failed, patch={}", target.getClass().getSimpleName(), patch.keySet(), e);
+            throw new RuntimeException("系统内部异常", e);
+        }
     }
 
     /**
@@ -43,22 +88,15 @@ public class BeanUtil {
      * @return 字段值为空的字段名
      */
     public static String[] getNullPropertyNames(Object source) {
-        // 借助spring提供的BeanWrapper来访问一个对象
-        final BeanWrapper src = new BeanWrapperImpl(source);
-        // 获取到所有的属性
-        PropertyDescriptor[] pds = src.getPropertyDescriptors();
-        Set<String> emptyNames = new HashSet<>();
-        for (PropertyDescriptor pd : pds) {
-            // 这里类似于通过反射获取值
-            Object srcValue = src.getPropertyValue(pd.getName());
-            if (srcValue == null) {
-                emptyNames.add(pd.getName());
+        List<String> emptyNames = new ArrayList<>();
+        for (BeanProperty property : BeanProperties.of(source.getClass()).getProperties()) {
+            if (property.isReadable() && property.get(source) == null) {
+                emptyNames.add(property.getName());
             }
         }
-        return emptyNames.toArray(new String[] {});
+        return emptyNames.toArray(new String[0]);
     }
 
-
     /**
      * 转换
      *
@@ -81,8 +119,10 @@ public class BeanUtil {
      */
     public static <T> T covertIgnore(Object src, Class<T> targetType, String[] ignoreProperties) {
         try {
-            T target = targetType.newInstance();
-            BeanUtils.copyProperties(src, target, ignoreProperties);
+            Assert.notNull(src, "Source must not be null");
+            BeanCopier beanCopier = BeanCopier.of(src.getClass(), targetType);
+            T target = targetType.cast(beanCopier.newTarget());
+            beanCopier.copy(src, target, ignoreProperties);
             return target;
         } catch (Exception e) {
             log.error("covertIgnore src={} to target={} failed, ignoreProperties={}", src, targetType.getSimpleName(), ignoreProperties, e);
@@ -103,11 +143,10 @@ public class BeanUtil {
             if (CollectionUtils.isEmpty(srcList)){
                 return Collections.emptyList();
             }
-            T targetObject;
-            List<T> targetList = new ArrayList<>();
+            List<T> targetList = new ArrayList<>(srcList.size());
+            Converter<T> converter = new Converter<>(targetType);
             for (Object src : srcList) {
-                targetObject = covert(src, targetType);
-                targetList.add(targetObject);
+                targetList.add(converter.apply(src));
             }
             return targetList;
         } catch (Exception e) {
@@ -116,4 +155,152 @@ public class BeanUtil {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 并行批量转换，使用ForkJoinPool.commonPool()，元素较少时退化为batchCovert
+     *
+     * @param srcList    数据源集合
+     * @param targetType 目标类型
+     * @return 目标实例集合，顺序与数据源相同
+     */
+    public static <T> List<T> parallelBatchCovert(List<?> srcList, Class<T> targetType) {
+        if (CollectionUtils.isEmpty(srcList) || srcList.size() < PARALLEL_THRESHOLD) {
+            return batchCovert(srcList, targetType);
+        }
+        try {
+            return parallelCovert(srcList, targetType);
+        } catch (Exception e) {
+            log.error("parallelBatchCovert srcList={} to target={} failed", srcList.getClass(), targetType, e);
+            throw new RuntimeException("系统内部异常", e);
+        }
+    }
+
+    /**
+     * 并行批量转换，在指定的ForkJoinPool中执行，避免大批量转换占满commonPool
+     *
+     * @param srcList    数据源集合
+     * @param targetType 目标类型
+     * @param pool       执行转换的线程池
+     * @return 目标实例集合，顺序与数据源相同
+     */
+    public static <T> List<T> parallelBatchCovert(List<?> srcList, Class<T> targetType, ForkJoinPool pool) {
+        if (CollectionUtils.isEmpty(srcList) || srcList.size() < PARALLEL_THRESHOLD) {
+            return batchCovert(srcList, targetType);
+        }
+        try {
+            return pool.submit(() -> parallelCovert(srcList, targetType)).join();
+        } catch (Exception e) {
+            log.error("parallelBatchCovert srcList={} to target={} failed", srcList.getClass(), targetType, e);
+            throw new RuntimeException("系统内部异常", e);
+        }
+    }
+
+    /**
+     * 惰性转换，终止操作时才逐个转换，适合分批查询、边转换边写出的导出场景
+     * 并行流中的元素也会并行转换；转换失败时直接抛出原始异常
+     *
+     * @param srcStream  数据源
+     * @param targetType 目标类型
+     * @return 目标实例流
+     */
+    public static <T> Stream<T> covertStream(Stream<?> srcStream, Class<T> targetType) {
+        if (srcStream.isParallel()) {
+            return srcStream.map(src -> convert(src, targetType));
+        }
+        return srcStream.map(new Converter<>(targetType));
+    }
+
+    /**
+     * 惰性转换，每次遍历时才逐个转换，不保存转换结果；转换失败时直接抛出原始异常
+     *
+     * @param srcIterable 数据源
+     * @param targetType  目标类型
+     * @return 目标实例，可以直接用于for循环
+     */
+    public static <T> Iterable<T> covertIterable(Iterable<?> srcIterable, Class<T> targetType) {
+        if (Objects.isNull(srcIterable)) {
+            return Collections.emptyList();
+        }
+        return () -> {
+            Iterator<?> iterator = srcIterable.iterator();
+            Converter<T> converter = new Converter<>(targetType);
+            return new Iterator<T>() {
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return converter.apply(iterator.next());
+                }
+            };
+        };
+    }
+
+    /**
+     * 把数据源转换为流，再调用covertStream
+     *
+     * @param srcIterable 数据源
+     * @param targetType  目标类型
+     * @param parallel    是否并行
+     * @return 目标实例流
+     */
+    public static <T> Stream<T> covertStream(Iterable<?> srcIterable, Class<T> targetType, boolean parallel) {
+        if (Objects.isNull(srcIterable)) {
+            return Stream.empty();
+        }
+        return covertStream(StreamSupport.stream(srcIterable.spliterator(), parallel), targetType);
+    }
+
+    /**
+     * RandomAccess集合按下标拆分，直接写入预先分配好的数组；其余集合使用集合自身的spliterator
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> parallelCovert(List<?> srcList, Class<T> targetType) {
+        if (!(srcList instanceof RandomAccess)) {
+            return srcList.parallelStream().map(src -> convert(src, targetType)).collect(Collectors.toList());
+        }
+        Object[] targets = new Object[srcList.size()];
+        IntStream.range(0, targets.length).parallel().forEach(i -> targets[i] = convert(srcList.get(i), targetType));
+        return new ArrayList<>((List<T>) Arrays.asList(targets));
+    }
+
+    private static <T> T convert(Object src, Class<T> targetType) {
+        Assert.notNull(src, "Source must not be null");
+        BeanCopier beanCopier = BeanCopier.of(src.getClass(), targetType);
+        T target = targetType.cast(beanCopier.newTarget());
+        beanCopier.copy(src, target);
+        return target;
+    }
+
+    /**
+     * 顺序转换，元素通常是同一个类型，复用上一个元素的复制计划，不能在多个线程之间共享
+     */
+    private static class Converter<T> implements Function<Object, T> {
+
+        private final Class<T> targetType;
+
+        private Class<?> srcType;
+
+        private BeanCopier beanCopier;
+
+        Converter(Class<T> targetType) {
+            this.targetType = targetType;
+        }
+
+        @Override
+        public T apply(Object src) {
+            Assert.notNull(src, "Source must not be null");
+            if (src.getClass() != srcType) {
+                srcType = src.getClass();
+                beanCopier = BeanCopier.of(srcType, targetType);
+            }
+            T target = targetType.cast(beanCopier.newTarget());
+            beanCopier.copy(src, target);
+            return target;
+        }
+
+    }
+
+}
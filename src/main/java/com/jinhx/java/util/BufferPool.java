@@ -0,0 +1,127 @@
+package com.jinhx.java.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 固定大小的byte[]和直接内存缓冲区池
+ *
+ * 解压、复制等大块读写频繁申请64KB的数组，大数组直接进入老年代，用完即丢会增加GC压力。
+ * 直接内存缓冲区用于FileChannel读取，避免JDK内部再复制到临时的直接内存，申请和回收的代价更高，更需要复用。
+ * 两种缓冲区各自最多保留maxPooled个，超出的归还直接丢弃；池为空时新建，不会阻塞。
+ * 其他大小的缓冲区（如ftp、sftp传输的缓冲区）通过of()按大小获取共享的池，保留的总字节数与默认池相同。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class BufferPool {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 共享的默认池，64KB，最多保留每个处理器4个
+     */
+    static final BufferPool DEFAULT = new BufferPool(DEFAULT_BUFFER_SIZE, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * of()最多缓存的不同大小的池，超出后返回不保留缓冲区的池
+     */
+    private static final int MAX_POOLS = 16;
+
+    private static final ConcurrentMap<Integer, BufferPool> POOLS = new ConcurrentHashMap<>();
+
+    private final int bufferSize;
+
+    private final int maxPooled;
+
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<ByteBuffer> directBuffers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger directPooled = new AtomicInteger();
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * 指定大小的共享池，最多保留的个数按默认池的总字节数换算，至少每个处理器1个
+     */
+    static BufferPool of(int bufferSize) {
+        if (bufferSize == DEFAULT_BUFFER_SIZE) {
+            return DEFAULT;
+        }
+        BufferPool bufferPool = POOLS.get(bufferSize);
+        if (bufferPool != null) {
+            return bufferPool;
+        }
+        if (POOLS.size() >= MAX_POOLS) {
+            return new BufferPool(bufferSize, 0);
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        long maxPooledBytes = (long) DEFAULT_BUFFER_SIZE * processors * 4;
+        int maxPooled = (int) Math.max(processors, maxPooledBytes / bufferSize);
+        return POOLS.computeIfAbsent(bufferSize, k -> new BufferPool(k, maxPooled));
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            return new byte[bufferSize];
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，归还后调用方不能再使用
+     */
+    void release(byte[] buffer) {
+        if (buffer == null || buffer.length != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffers.offer(buffer);
+    }
+
+    /**
+     * 获取直接内存缓冲区，position为0，limit为容量
+     */
+    ByteBuffer acquireDirect() {
+        ByteBuffer buffer = directBuffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        directPooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * 归还直接内存缓冲区，归还后调用方不能再使用
+     */
+    void releaseDirect(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (directPooled.incrementAndGet() > maxPooled) {
+            directPooled.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        directBuffers.offer(buffer);
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.jinhx.java.util;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.NumberUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 一个类的字段读写计划，按类缓存，字段在创建时setAccessible，之后读写不再查找和检查
+ * 缓存使用软引用的ConcurrentReferenceHashMap，不会阻止旧ClassLoader被回收
+ *
+ * 包含父类的字段，子类与父类同名时使用子类的字段；不包含static和编译器生成的字段。
+ * 写入时按字段类型转换：基本类型字段通过setInt等方法写入，不创建包装对象，数字按Java基本类型的转换规则截断；
+ * 数字之间互相转换，其余类型（例如String转枚举、数字、LocalDateTime）使用spring的ConversionService转换。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class FieldAccessPlan {
+
+    private static final ConcurrentMap<Class<?>, FieldAccessPlan> CACHE = new ConcurrentReferenceHashMap<>();
+
+    /**
+     * 日期使用ISO格式，与java.time类型toString()的结果一致
+     */
+    private static final ConversionService CONVERSION_SERVICE = conversionService();
+
+    private static final int REFERENCE = 0;
+
+    private static final int BOOLEAN = 1;
+
+    private static final int BYTE = 2;
+
+    private static final int CHAR = 3;
+
+    private static final int SHORT = 4;
+
+    private static final int INT = 5;
+
+    private static final int LONG = 6;
+
+    private static final int FLOAT = 7;
+
+    private static final int DOUBLE = 8;
+
+    private final Class<?> type;
+
+    private final FieldAccessor[] accessors;
+
+    /**
+     * 字段名到accessors下标的索引，同一个类的所有map视图共享
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * 转换为map时的初始容量，保证不扩容
+     */
+    private final int mapCapacity;
+
+    private volatile Supplier<Object> constructor;
+
+    private FieldAccessPlan(Class<?> type) {
+        this.type = type;
+        List<FieldAccessor> list = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (Class<?> current = type; Objects.nonNull(current) && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || !names.add(field.getName())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                list.add(new FieldAccessor(field));
+            }
+        }
+        this.accessors = list.toArray(new FieldAccessor[0]);
+        this.mapCapacity = (int) (accessors.length / 0.75f) + 1;
+        this.indexes = new HashMap<>(mapCapacity);
+        for (int i = 0; i < accessors.length; i++) {
+            indexes.put(accessors[i].getName(), i);
+        }
+    }
+
+    private static ConversionService conversionService() {
+        DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService(false);
+        DateTimeFormatterRegistrar registrar = new DateTimeFormatterRegistrar();
+        registrar.setUseIsoFormat(true);
+        registrar.registerFormatters(conversionService);
+        return conversionService;
+    }
+
+    static FieldAccessPlan of(Class<?> type) {
+        FieldAccessPlan plan = CACHE.get(type);
+        if (Objects.nonNull(plan)) {
+            return plan;
+        }
+        return CACHE.computeIfAbsent(type, FieldAccessPlan::new);
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    FieldAccessor[] getAccessors() {
+        return accessors;
+    }
+
+    /**
+     * 字段的下标，没有该字段时返回-1
+     */
+    int indexOf(Object name) {
+        Integer index = indexes.get(name);
+        return Objects.isNull(index) ? -1 : index;
+    }
+
+    int getMapCapacity() {
+        return mapCapacity;
+    }
+
+    /**
+     * 通过无参构造方法创建实例，构造方法可以不是public
+     */
+    Object newInstance() {
+        Supplier<Object> supplier = constructor;
+        if (Objects.isNull(supplier)) {
+            supplier = BeanAccessors.constructor(type);
+            if (Objects.isNull(supplier)) {
+                throw new IllegalArgumentException(type.getName() + " has no default constructor");
+            }
+            constructor = supplier;
+        }
+        return supplier.get();
+    }
+
+    /**
+     * 单个字段的读写
+     */
+    static final class FieldAccessor {
+
+        private final Field field;
+
+        private final String name;
+
+        private final Class<?> type;
+
+        private final int kind;
+
+        private final boolean writable;
+
+        private volatile TypeDescriptor typeDescriptor;
+
+        FieldAccessor(Field field) {
+            this.field = field;
+            this.name = field.getName();
+            this.type = field.getType();
+            this.kind = kindOf(type);
+            this.writable = !Modifier.isFinal(field.getModifiers());
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean isWritable() {
+            return writable;
+        }
+
+        Object get(Object bean) throws IllegalAccessException {
+            return field.get(bean);
+        }
+
+        /**
+         * 写入字段，value为null时基本类型字段保持不变
+         */
+        void set(Object bean, Object value) throws IllegalAccessException {
+            if (Objects.isNull(value)) {
+                if (kind == REFERENCE) {
+                    field.set(bean, null);
+                }
+                return;
+            }
+            switch (kind) {
+                case REFERENCE:
+                    field.set(bean, type.isInstance(value) ? value : convert(value));
+                    return;
+                case BOOLEAN:
+                    field.setBoolean(bean, value instanceof Boolean ? (Boolean) value : (Boolean) convert(value));
+                    return;
+                case CHAR:
+                    field.setChar(bean, value instanceof Character ? (Character) value : (Character) convert(value));
+                    return;
+                default:
+                    setNumber(bean, value instanceof Number ? (Number) value : (Number) convert(value));
+            }
+        }
+
+        private void setNumber(Object bean, Number number) throws IllegalAccessException {
+            switch (kind) {
+                case BYTE:
+                    field.setByte(bean, number.byteValue());
+                    return;
+                case SHORT:
+                    field.setShort(bean, number.shortValue());
+                    return;
+                case INT:
+                    field.setInt(bean, number.intValue());
+                    return;
+                case LONG:
+                    field.setLong(bean, number.longValue());
+                    return;
+                case FLOAT:
+                    field.setFloat(bean, number.floatValue());
+                    return;
+                default:
+                    field.setDouble(bean, number.doubleValue());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object convert(Object value) {
+            Class<?> targetType = ClassUtils.resolvePrimitiveIfNecessary(type);
+            if (value instanceof Number && Number.class.isAssignableFrom(targetType)) {
+                return NumberUtils.convertNumberToTargetClass((Number) value, (Class<? extends Number>) targetType);
+            }
+            TypeDescriptor descriptor = typeDescriptor;
+            if (Objects.isNull(descriptor)) {
+                descriptor = new TypeDescriptor(field);
+                typeDescriptor = descriptor;
+            }
+            return CONVERSION_SERVICE.convert(value, TypeDescriptor.forObject(value), descriptor);
+        }
+
+        private static int kindOf(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return REFERENCE;
+            }
+            if (type == boolean.class) {
+                return BOOLEAN;
+            }
+            if (type == byte.class) {
+                return BYTE;
+            }
+            if (type == char.class) {
+                return CHAR;
+            }
+            if (type == short.class) {
+                return SHORT;
+            }
+            if (type == int.class) {
+                return INT;
+            }
+            if (type == long.class) {
+                return LONG;
+            }
+            if (type == float.class) {
+                return FLOAT;
+            }
+            return DOUBLE;
+        }
+
+    }
+
+}
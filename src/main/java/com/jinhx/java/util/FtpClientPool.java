@@ -0,0 +1,329 @@
+package com.jinhx.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPReply;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FTP连接池，按服务器（host、port、userName、password）分别保存已登录的FTPClient
+ *
+ * 每次上传下载都重新连接、登录时，小文件的耗时主要在建立连接和登录的几次往返上，连接池复用已登录的控制连接。
+ * 每个服务器同时借出的连接数不超过maxPerHost，达到上限时等待归还；空闲连接后进先出，常用的连接保持活跃，
+ * 空闲较久的连接借出前先发送NOOP校验，后台线程定期关闭空闲超过maxIdleMillis的连接。
+ * 连接在借出期间出现IOException时应调用invalidate()，归还时直接关闭，不放回池中。
+ *
+ * <pre>
+ * try (FtpConnection connection = pool.borrow(endpoint)) {
+ *     FTPClient client = connection.getClient();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+public class FtpClientPool implements Closeable {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final FtpPoolConfig config;
+
+    private final ConcurrentMap<FtpEndpoint, HostPool> hostPools = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    public FtpClientPool() {
+        this(FtpPoolConfig.defaults());
+    }
+
+    public FtpClientPool(FtpPoolConfig config) {
+        this.config = config;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ftp-pool-evictor-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evict, config.getEvictionIntervalMillis(),
+                config.getEvictionIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public FtpPoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 借出一个已登录的连接，优先使用空闲连接，没有时新建
+     *
+     * @param endpoint 服务器
+     * @return FtpConnection，用完后close()归还
+     * @throws IOException 连接、登录失败或等待超时
+     */
+    public FtpConnection borrow(FtpEndpoint endpoint) throws IOException {
+        ensureOpen();
+        HostPool hostPool = hostPools.computeIfAbsent(endpoint, key -> new HostPool(key, config));
+        hostPool.acquire(config.getBorrowTimeoutMillis());
+        try {
+            PooledClient pooled;
+            while ((pooled = hostPool.idle.pollFirst()) != null) {
+                if (validate(pooled)) {
+                    return new FtpConnection(this, hostPool, pooled);
+                }
+                destroy(pooled.client);
+            }
+            return new FtpConnection(this, hostPool, create(endpoint));
+        } catch (IOException | RuntimeException e) {
+            hostPool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 借出连接执行操作后归还，出现异常时关闭该连接
+     *
+     * @param endpoint 服务器
+     * @param callback 操作
+     * @return 操作的返回值
+     */
+    public <T> T execute(FtpEndpoint endpoint, FtpCallback<T> callback) throws IOException {
+        try (FtpConnection connection = borrow(endpoint)) {
+            try {
+                return callback.doWithClient(connection.getClient());
+            } catch (IOException | RuntimeException e) {
+                connection.invalidate();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 空闲连接数
+     */
+    public int getIdleCount(FtpEndpoint endpoint) {
+        HostPool hostPool = hostPools.get(endpoint);
+        return Objects.isNull(hostPool) ? 0 : hostPool.idle.size();
+    }
+
+    /**
+     * 已借出的连接数
+     */
+    public int getBorrowedCount(FtpEndpoint endpoint) {
+        HostPool hostPool = hostPools.get(endpoint);
+        return Objects.isNull(hostPool) ? 0 : config.getMaxPerHost() - hostPool.permits.availablePermits();
+    }
+
+    /**
+     * 关闭所有空闲连接，已借出的连接归还时关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        for (HostPool hostPool : hostPools.values()) {
+            PooledClient pooled;
+            while ((pooled = hostPool.idle.pollFirst()) != null) {
+                destroy(pooled.client);
+            }
+        }
+    }
+
+    /**
+     * 归还连接，连接损坏、池已关闭、恢复工作目录失败或空闲连接已满时直接关闭
+     */
+    void release(HostPool hostPool, PooledClient pooled, boolean broken) {
+        try {
+            if (broken || closed || !pooled.client.isConnected() || !resetWorkingDirectory(pooled)) {
+                destroy(pooled.client);
+                return;
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            if (!hostPool.idle.offerFirst(pooled)) {
+                destroy(pooled.client);
+            }
+        } finally {
+            hostPool.permits.release();
+        }
+    }
+
+    private PooledClient create(FtpEndpoint endpoint) throws IOException {
+        FTPClient client = new FTPClient();
+        client.setConnectTimeout(config.getConnectTimeoutMillis());
+        client.setDefaultTimeout(config.getSoTimeoutMillis());
+        client.setDataTimeout(config.getDataTimeoutMillis());
+        client.setControlEncoding(config.getControlEncoding());
+        client.setBufferSize(config.getBufferSize());
+        client.setSendDataSocketBufferSize(config.getSendDataSocketBufferSize());
+        client.setReceieveDataSocketBufferSize(config.getReceiveDataSocketBufferSize());
+        try {
+            client.connect(endpoint.getHost(), endpoint.getPort());
+            client.setSoTimeout(config.getSoTimeoutMillis());
+            if (!FTPReply.isPositiveCompletion(client.getReplyCode())) {
+                throw new IOException("ftp connect refused, " + endpoint + ", " + client.getReplyString().trim());
+            }
+            if (!client.login(endpoint.getUserName(), endpoint.getPassword())) {
+                throw new IOException("ftp login failed, " + endpoint + ", " + client.getReplyString().trim());
+            }
+            client.setFileType(FTP.BINARY_FILE_TYPE);
+            if (config.isPassiveMode()) {
+                client.enterLocalPassiveMode();
+            }
+            String home = config.isResetWorkingDirectory() ? client.printWorkingDirectory() : null;
+            log.debug("ftp connection created, {}", endpoint);
+            return new PooledClient(client, home);
+        } catch (IOException | RuntimeException e) {
+            destroy(client);
+            throw e;
+        }
+    }
+
+    private boolean validate(PooledClient pooled) {
+        if (!pooled.client.isConnected()) {
+            return false;
+        }
+        if (System.currentTimeMillis() - pooled.lastUsed < config.getValidateAfterIdleMillis()) {
+            return true;
+        }
+        try {
+            return pooled.client.sendNoOp();
+        } catch (IOException e) {
+            log.debug("ftp connection validate failed", e);
+            return false;
+        }
+    }
+
+    private boolean resetWorkingDirectory(PooledClient pooled) {
+        if (Objects.isNull(pooled.home)) {
+            return true;
+        }
+        try {
+            return pooled.client.changeWorkingDirectory(pooled.home);
+        } catch (IOException e) {
+            log.debug("ftp connection reset working directory failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * 关闭空闲超过maxIdleMillis的连接，最久未使用的在队尾
+     */
+    private void evict() {
+        long expireBefore = System.currentTimeMillis() - config.getMaxIdleMillis();
+        for (HostPool hostPool : hostPools.values()) {
+            Iterator<PooledClient> iterator = hostPool.idle.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledClient pooled = iterator.next();
+                if (pooled.lastUsed > expireBefore) {
+                    break;
+                }
+                if (hostPool.idle.removeLastOccurrence(pooled)) {
+                    destroy(pooled.client);
+                }
+            }
+        }
+    }
+
+    private static void destroy(FTPClient client) {
+        if (!client.isConnected()) {
+            return;
+        }
+        try {
+            client.logout();
+        } catch (IOException e) {
+            log.debug("ftp logout failed", e);
+        }
+        try {
+            client.disconnect();
+        } catch (IOException e) {
+            log.debug("ftp disconnect failed", e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("ftp pool closed");
+        }
+    }
+
+    /**
+     * 使用借出的FTPClient执行操作
+     */
+    @FunctionalInterface
+    public interface FtpCallback<T> {
+
+        T doWithClient(FTPClient client) throws IOException;
+
+    }
+
+    /**
+     * 单个服务器的连接
+     */
+    static final class HostPool {
+
+        private final FtpEndpoint endpoint;
+
+        private final Semaphore permits;
+
+        private final LinkedBlockingDeque<PooledClient> idle;
+
+        HostPool(FtpEndpoint endpoint, FtpPoolConfig config) {
+            this.endpoint = endpoint;
+            this.permits = new Semaphore(config.getMaxPerHost(), true);
+            this.idle = new LinkedBlockingDeque<>(config.getMaxIdlePerHost());
+        }
+
+        FtpEndpoint getEndpoint() {
+            return endpoint;
+        }
+
+        void acquire(long timeoutMillis) throws IOException {
+            try {
+                if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("ftp pool exhausted, " + endpoint);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("ftp borrow interrupted", e);
+            }
+        }
+
+    }
+
+    /**
+     * 池中的连接，home为登录后的初始目录
+     */
+    static final class PooledClient {
+
+        private final FTPClient client;
+
+        private final String home;
+
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledClient(FTPClient client, String home) {
+            this.client = client;
+            this.home = home;
+        }
+
+        FTPClient getClient() {
+            return client;
+        }
+
+    }
+
+}
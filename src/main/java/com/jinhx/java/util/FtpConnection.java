@@ -0,0 +1,61 @@
+package com.jinhx.java.util;
+
+import org.apache.commons.net.ftp.FTPClient;
+
+import java.io.Closeable;
+
+/**
+ * 从FtpClientPool借出的连接，close()时归还，不是线程安全的
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public final class FtpConnection implements Closeable {
+
+    private final FtpClientPool pool;
+
+    private final FtpClientPool.HostPool hostPool;
+
+    private final FtpClientPool.PooledClient pooled;
+
+    private boolean broken;
+
+    private boolean returned;
+
+    FtpConnection(FtpClientPool pool, FtpClientPool.HostPool hostPool, FtpClientPool.PooledClient pooled) {
+        this.pool = pool;
+        this.hostPool = hostPool;
+        this.pooled = pooled;
+    }
+
+    /**
+     * 已登录、已设置为二进制传输的FTPClient，不要调用logout()和disconnect()
+     */
+    public FTPClient getClient() {
+        return pooled.getClient();
+    }
+
+    public FtpEndpoint getEndpoint() {
+        return hostPool.getEndpoint();
+    }
+
+    /**
+     * 标记连接已损坏，归还时关闭，出现IOException或传输中断时调用
+     */
+    public void invalidate() {
+        broken = true;
+    }
+
+    /**
+     * 归还到连接池，多次调用只归还一次
+     */
+    @Override
+    public void close() {
+        if (returned) {
+            return;
+        }
+        returned = true;
+        pool.release(hostPool, pooled, broken);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * FTP服务器地址和账号，FtpClientPool按host、port、userName区分连接池
+ * 密码也参与比较，密码错误时不会借到其他调用方已登录的连接
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public final class FtpEndpoint {
+
+    private final String host;
+
+    private final int port;
+
+    private final String userName;
+
+    private final String password;
+
+    public FtpEndpoint(String host, int port, String userName, String password) {
+        this.host = Objects.requireNonNull(host, "host");
+        this.port = port;
+        this.userName = Objects.isNull(userName) ? "" : userName;
+        this.password = Objects.isNull(password) ? "" : password;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FtpEndpoint)) {
+            return false;
+        }
+        FtpEndpoint that = (FtpEndpoint) o;
+        return port == that.port && host.equals(that.host) && userName.equals(that.userName)
+                && password.equals(that.password);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, userName, password);
+    }
+
+    /**
+     * 不包含密码
+     */
+    @Override
+    public String toString() {
+        return userName + "@" + host + ":" + port;
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * FtpClientPool连接池参数
+ *
+ * <pre>
+ * FtpPoolConfig config = FtpPoolConfig.builder()
+ *         .maxPerHost(8)
+ *         .maxIdleMillis(60_000)
+ *         .build();
+ * FtpClientPool pool = new FtpClientPool(config);
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public class FtpPoolConfig {
+
+    private static final FtpPoolConfig DEFAULT = builder().build();
+
+    private final int maxPerHost;
+
+    private final int maxIdlePerHost;
+
+    private final long borrowTimeoutMillis;
+
+    private final long validateAfterIdleMillis;
+
+    private final long maxIdleMillis;
+
+    private final long evictionIntervalMillis;
+
+    private final int connectTimeoutMillis;
+
+    private final int soTimeoutMillis;
+
+    private final int dataTimeoutMillis;
+
+    private final boolean passiveMode;
+
+    private final boolean resetWorkingDirectory;
+
+    private final String controlEncoding;
+
+    private final int bufferSize;
+
+    private final int sendDataSocketBufferSize;
+
+    private final int receiveDataSocketBufferSize;
+
+    private FtpPoolConfig(Builder builder) {
+        this.maxPerHost = Math.max(1, builder.maxPerHost);
+        this.maxIdlePerHost = Math.min(builder.maxIdlePerHost > 0 ? builder.maxIdlePerHost : maxPerHost, maxPerHost);
+        this.borrowTimeoutMillis = builder.borrowTimeoutMillis;
+        this.validateAfterIdleMillis = builder.validateAfterIdleMillis;
+        this.maxIdleMillis = builder.maxIdleMillis;
+        this.evictionIntervalMillis = builder.evictionIntervalMillis;
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.soTimeoutMillis = builder.soTimeoutMillis;
+        this.dataTimeoutMillis = builder.dataTimeoutMillis;
+        this.passiveMode = builder.passiveMode;
+        this.resetWorkingDirectory = builder.resetWorkingDirectory;
+        this.controlEncoding = builder.controlEncoding;
+        this.bufferSize = builder.bufferSize;
+        this.sendDataSocketBufferSize = builder.sendDataSocketBufferSize;
+        this.receiveDataSocketBufferSize = builder.receiveDataSocketBufferSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 默认参数：每个服务器最多8个连接，空闲超过10秒借出前NOOP校验，空闲超过60秒关闭
+     */
+    public static FtpPoolConfig defaults() {
+        return DEFAULT;
+    }
+
+    public static class Builder {
+
+        private int maxPerHost = 8;
+
+        private int maxIdlePerHost;
+
+        private long borrowTimeoutMillis = 30_000;
+
+        private long validateAfterIdleMillis = 10_000;
+
+        private long maxIdleMillis = 60_000;
+
+        private long evictionIntervalMillis = 30_000;
+
+        private int connectTimeoutMillis = 10_000;
+
+        private int soTimeoutMillis = 60_000;
+
+        private int dataTimeoutMillis = 60_000;
+
+        private boolean passiveMode;
+
+        private boolean resetWorkingDirectory = true;
+
+        private String controlEncoding = StandardCharsets.UTF_8.name();
+
+        private int bufferSize = 64 * 1024;
+
+        private int sendDataSocketBufferSize;
+
+        private int receiveDataSocketBufferSize;
+
+        /**
+         * 每个服务器（host、port、userName、password）最多同时借出的连接数，默认8
+         */
+        public Builder maxPerHost(int maxPerHost) {
+            this.maxPerHost = maxPerHost;
+            return this;
+        }
+
+        /**
+         * 每个服务器最多保留的空闲连接数，默认等于maxPerHost，超出的连接归还时直接关闭
+         */
+        public Builder maxIdlePerHost(int maxIdlePerHost) {
+            this.maxIdlePerHost = maxIdlePerHost;
+            return this;
+        }
+
+        /**
+         * 连接数达到maxPerHost时借出的最长等待时间，超时抛出IOException，默认30秒
+         */
+        public Builder borrowTimeoutMillis(long borrowTimeoutMillis) {
+            this.borrowTimeoutMillis = borrowTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 空闲超过该时间的连接借出前先发送NOOP校验，失败时关闭并换一个，默认10秒，0表示每次都校验
+         */
+        public Builder validateAfterIdleMillis(long validateAfterIdleMillis) {
+            this.validateAfterIdleMillis = validateAfterIdleMillis;
+            return this;
+        }
+
+        /**
+         * 空闲超过该时间的连接由后台线程关闭，默认60秒，一般小于服务器的空闲超时
+         */
+        public Builder maxIdleMillis(long maxIdleMillis) {
+            this.maxIdleMillis = maxIdleMillis;
+            return this;
+        }
+
+        /**
+         * 后台清理空闲连接的间隔，默认30秒
+         */
+        public Builder evictionIntervalMillis(long evictionIntervalMillis) {
+            if (evictionIntervalMillis <= 0) {
+                throw new IllegalArgumentException("invalid eviction interval " + evictionIntervalMillis);
+            }
+            this.evictionIntervalMillis = evictionIntervalMillis;
+            return this;
+        }
+
+        /**
+         * 建立控制连接的超时时间，默认10秒
+         */
+        public Builder connectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 控制连接读取超时时间，默认60秒
+         */
+        public Builder soTimeoutMillis(int soTimeoutMillis) {
+            this.soTimeoutMillis = soTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 数据连接读取超时时间，默认60秒
+         */
+        public Builder dataTimeoutMillis(int dataTimeoutMillis) {
+            this.dataTimeoutMillis = dataTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 是否使用被动模式，默认false即主动模式，客户端在NAT或防火墙后面时需要开启
+         */
+        public Builder passiveMode(boolean passiveMode) {
+            this.passiveMode = passiveMode;
+            return this;
+        }
+
+        /**
+         * 归还时是否切回登录后的初始目录，默认true，使用相对路径时需要开启
+         */
+        public Builder resetWorkingDirectory(boolean resetWorkingDirectory) {
+            this.resetWorkingDirectory = resetWorkingDirectory;
+            return this;
+        }
+
+        /**
+         * 控制连接编码，影响中文文件名，默认UTF-8
+         */
+        public Builder controlEncoding(String controlEncoding) {
+            this.controlEncoding = controlEncoding;
+            return this;
+        }
+
+        /**
+         * FTPClient读写数据连接的缓冲区大小，默认64KB，commons-net自身的默认值只有1KB，大文件传输时系统调用过多
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * 数据连接socket的发送缓冲区大小，默认0即使用系统默认值，高延迟链路上传时可以调大
+         */
+        public Builder sendDataSocketBufferSize(int sendDataSocketBufferSize) {
+            this.sendDataSocketBufferSize = sendDataSocketBufferSize;
+            return this;
+        }
+
+        /**
+         * 数据连接socket的接收缓冲区大小，默认0即使用系统默认值，高延迟链路下载时可以调大
+         */
+        public Builder receiveDataSocketBufferSize(int receiveDataSocketBufferSize) {
+            this.receiveDataSocketBufferSize = receiveDataSocketBufferSize;
+            return this;
+        }
+
+        public FtpPoolConfig build() {
+            return new FtpPoolConfig(this);
+        }
+
+    }
+
+}
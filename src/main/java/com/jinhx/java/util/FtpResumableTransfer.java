@@ -0,0 +1,338 @@
+package com.jinhx.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPReply;
+import org.apache.commons.net.io.CopyStreamListener;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * FtpUtils断点续传、分段下载的实现
+ *
+ * 下载先写入同目录下的.part文件，失败时保留，下次从.part文件的长度通过REST继续，完成并校验后替换目标文件；
+ * 上传同样先写入服务器上的.part文件，下次从其长度通过APPE追加，完成并校验后重命名为目标文件，
+ * 校验失败时删除.part文件。本地文件通过FileChannel按位置读写，
+ * 使用FtpTransferOptions.bufferSize大小的缓冲区（从BufferPool中复用），数据连接的缓冲区和socket缓冲区在FtpPoolConfig中设置。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+final class FtpResumableTransfer {
+
+    private static final String[] CHECKSUM_COMMANDS = {"XMD5", "MD5"};
+
+    private static final Pattern MD5_HEX = Pattern.compile("\\b[0-9a-fA-F]{32}\\b");
+
+    private FtpResumableTransfer() {
+    }
+
+    /**
+     * 下载文件，本地已有.part文件时从其长度继续
+     *
+     * @return 本次传输的字节数
+     */
+    static long download(FTPClient client, String remotePath, File localFile, FtpTransferOptions options)
+            throws IOException {
+        FTPFile remote = FtpUtils.stat(client, remotePath);
+        if (Objects.isNull(remote) || remote.isDirectory()) {
+            throw new FileNotFoundException("ftp file not found, " + remotePath);
+        }
+        long remoteSize = remote.getSize();
+        Path target = localFile.getAbsoluteFile().toPath();
+        Files.createDirectories(target.getParent());
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long transferred = 0;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long offset = options.isResume() ? channel.size() : 0;
+            if (remoteSize >= 0 && offset > remoteSize) {
+                // 服务器上的文件比.part文件还短，说明已经被替换，重新下载
+                offset = 0;
+            }
+            channel.truncate(offset);
+            if (remoteSize < 0 || offset < remoteSize) {
+                if (offset > 0) {
+                    log.info("ftp断点续传下载，{}，从{}字节继续", remotePath, offset);
+                }
+                client.setRestartOffset(offset);
+                InputStream in = client.retrieveFileStream(remotePath);
+                if (Objects.isNull(in)) {
+                    throw new IOException("ftp retrieve failed, " + remotePath + ", " + replyString(client));
+                }
+                try {
+                    transferred = copy(in, channel, offset, Long.MAX_VALUE, options.getBufferSize());
+                } finally {
+                    in.close();
+                }
+                if (!client.completePendingCommand()) {
+                    throw new IOException("ftp retrieve failed, " + remotePath + ", " + replyString(client));
+                }
+            }
+        }
+        try {
+            long size = Files.size(part);
+            if (remoteSize >= 0 && size != remoteSize) {
+                throw new IOException("ftp size mismatch, " + remotePath + ", local " + size + ", remote " + remoteSize);
+            }
+            if (options.isVerifyChecksum()) {
+                verifyChecksum(client, remotePath, part);
+            }
+        } catch (IOException e) {
+            // 内容已经不一致，不能再续传
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        FtpUtils.replace(part, target);
+        return transferred;
+    }
+
+    /**
+     * 上传文件，先写入服务器同目录下的.part文件，完成并校验后重命名为目标文件，目录不存在时逐级创建
+     * 续传时只从.part文件的长度继续，不会在已有的同名文件后追加
+     *
+     * @return 本次传输的字节数
+     */
+    static long upload(FTPClient client, File localFile, String remotePath, FtpTransferOptions options)
+            throws IOException {
+        return upload(client, localFile, remotePath, options, null);
+    }
+
+    /**
+     * 上传文件，复制数据时回调listener，streamSize为本次需要传输的字节数
+     *
+     * @return 本次传输的字节数
+     */
+    static long upload(FTPClient client, File localFile, String remotePath, FtpTransferOptions options,
+                       CopyStreamListener listener) throws IOException {
+        int index = remotePath.lastIndexOf('/');
+        String directory = index < 0 ? "" : (index == 0 ? "/" : remotePath.substring(0, index));
+        String name = remotePath.substring(index + 1);
+        String part = name + ".part";
+        long transferred;
+        long localSize;
+        try (FileChannel channel = FileChannel.open(localFile.toPath(), StandardOpenOption.READ)) {
+            localSize = channel.size();
+            if (!directory.isEmpty() && !FtpUtils.changeOrMakeDirectory(client, directory)) {
+                throw new IOException("ftp make directory failed, " + directory + ", " + replyString(client));
+            }
+            long offset = 0;
+            if (options.isResume()) {
+                FTPFile remote = FtpUtils.stat(client, part);
+                if (Objects.nonNull(remote) && !remote.isDirectory() && remote.getSize() <= localSize) {
+                    offset = Math.max(0, remote.getSize());
+                }
+            }
+            if (offset > 0) {
+                log.info("ftp断点续传上传，{}，从{}字节继续", remotePath, offset);
+            }
+            OutputStream out = offset > 0 ? client.appendFileStream(part) : client.storeFileStream(part);
+            if (Objects.isNull(out)) {
+                throw new IOException("ftp store failed, " + remotePath + ", " + replyString(client));
+            }
+            try {
+                transferred = copy(channel, offset, out, options.getBufferSize(), listener);
+            } finally {
+                out.close();
+            }
+            if (!client.completePendingCommand()) {
+                throw new IOException("ftp store failed, " + remotePath + ", " + replyString(client));
+            }
+        }
+        try {
+            FTPFile remote = FtpUtils.stat(client, part);
+            if (Objects.nonNull(remote) && remote.getSize() >= 0 && remote.getSize() != localSize) {
+                throw new IOException("ftp size mismatch, " + remotePath + ", local " + localSize + ", remote "
+                        + remote.getSize());
+            }
+            if (options.isVerifyChecksum()) {
+                verifyChecksum(client, part, localFile.toPath());
+            }
+        } catch (IOException e) {
+            // 内容已经不一致，不能再续传
+            client.deleteFile(part);
+            throw e;
+        }
+        rename(client, part, name);
+        return transferred;
+    }
+
+    /**
+     * 重命名，部分服务器目标文件已存在时RNTO失败，删除目标文件后再试一次
+     */
+    private static void rename(FTPClient client, String from, String to) throws IOException {
+        if (client.rename(from, to)) {
+            return;
+        }
+        if (!client.deleteFile(to) || !client.rename(from, to)) {
+            throw new IOException("ftp rename failed, " + from + " -> " + to + ", " + replyString(client));
+        }
+    }
+
+    /**
+     * 下载[offset, offset + length)写入本地文件的相同位置，本地文件不存在时创建，不截断
+     * 多个连接分别下载不同的范围写入同一个本地文件，即可并行下载一个大文件
+     *
+     * @return 传输的字节数，等于length
+     */
+    static long downloadRange(FTPClient client, String remotePath, long offset, long length, File localFile,
+                              FtpTransferOptions options) throws IOException {
+        if (offset < 0 || length <= 0) {
+            throw new IllegalArgumentException("invalid range " + offset + "+" + length);
+        }
+        try (FileChannel channel = FileChannel.open(localFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            client.setRestartOffset(offset);
+            InputStream in = client.retrieveFileStream(remotePath);
+            if (Objects.isNull(in)) {
+                throw new IOException("ftp retrieve failed, " + remotePath + ", " + replyString(client));
+            }
+            long copied;
+            try {
+                copied = copy(in, channel, offset, length, options.getBufferSize());
+            } finally {
+                // 读够length后提前关闭数据连接，服务器回复426或226
+                in.close();
+            }
+            boolean completed = client.completePendingCommand();
+            if (copied < length) {
+                if (!completed) {
+                    throw new IOException("ftp retrieve failed, " + remotePath + ", " + replyString(client));
+                }
+                throw new EOFException("ftp range beyond end of file, " + remotePath + ", " + offset + "+" + length);
+            }
+            return copied;
+        }
+    }
+
+    /**
+     * 从输入流复制最多limit字节写入文件的position位置，缓冲区从BufferPool中按大小获取
+     */
+    static long copy(InputStream in, FileChannel channel, long position, long limit, int bufferSize)
+            throws IOException {
+        BufferPool bufferPool = BufferPool.of(bufferSize);
+        byte[] buffer = bufferPool.acquire();
+        try {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            long copied = 0;
+            while (copied < limit) {
+                int len = in.read(buffer, 0, (int) Math.min(buffer.length, limit - copied));
+                if (len == -1) {
+                    break;
+                }
+                byteBuffer.clear();
+                byteBuffer.limit(len);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+                copied += len;
+            }
+            return copied;
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * 从文件的position位置读到末尾写入输出流，缓冲区从BufferPool中按大小获取，listener不为null时每次写入后回调
+     */
+    static long copy(FileChannel channel, long position, OutputStream out, int bufferSize,
+                     CopyStreamListener listener) throws IOException {
+        BufferPool bufferPool = BufferPool.of(bufferSize);
+        byte[] buffer = bufferPool.acquire();
+        try {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            long streamSize = channel.size() - position;
+            long copied = 0;
+            int len;
+            while ((len = channel.read(byteBuffer, position)) != -1) {
+                out.write(buffer, 0, len);
+                byteBuffer.clear();
+                position += len;
+                copied += len;
+                if (Objects.nonNull(listener)) {
+                    listener.bytesTransferred(copied, len, streamSize);
+                }
+            }
+            out.flush();
+            return copied;
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * 比较本地文件和服务器上文件的MD5，服务器不支持时跳过
+     */
+    private static void verifyChecksum(FTPClient client, String remotePath, Path localFile) throws IOException {
+        String remote = remoteMd5(client, remotePath);
+        if (Objects.isNull(remote)) {
+            log.debug("ftp server does not support md5, skip checksum, {}", remotePath);
+            return;
+        }
+        String local = md5(localFile);
+        if (!local.equalsIgnoreCase(remote)) {
+            throw new IOException("ftp checksum mismatch, " + remotePath + ", local " + local + ", remote " + remote);
+        }
+    }
+
+    private static String remoteMd5(FTPClient client, String remotePath) throws IOException {
+        for (String command : CHECKSUM_COMMANDS) {
+            if (!FTPReply.isPositiveCompletion(client.sendCommand(command, remotePath))) {
+                continue;
+            }
+            // XMD5回复"250 hash"，MD5回复"251 path hash"
+            Matcher matcher = MD5_HEX.matcher(client.getReplyString().substring(3));
+            String hash = null;
+            while (matcher.find()) {
+                hash = matcher.group();
+            }
+            if (Objects.nonNull(hash)) {
+                return hash;
+            }
+        }
+        return null;
+    }
+
+    private static String md5(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = BufferPool.DEFAULT.acquireDirect();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            BufferPool.DEFAULT.releaseDirect(buffer);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private static String replyString(FTPClient client) {
+        return Objects.toString(client.getReplyString(), "").trim();
+    }
+
+}
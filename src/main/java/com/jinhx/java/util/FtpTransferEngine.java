@@ -0,0 +1,690 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPReply;
+import org.apache.commons.net.io.CopyStreamEvent;
+import org.apache.commons.net.io.CopyStreamListener;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FTP批量传输引擎，多个文件通过连接池并行上传下载
+ *
+ * 每个服务器一个有界队列，最多parallelismPerHost个工作线程从队列中取任务，每个工作线程占用一个池中的连接，
+ * 不同服务器之间互不影响；队列满时提交线程阻塞等待，不会把任务无限堆积在内存中。
+ * 上传和FtpUtils.uploadFile()一样先写入服务器上的.part文件，完成并校验后重命名，重试时从.part文件的长度继续。
+ * 失败的任务按指数退避加随机抖动重试，服务器返回5xx（文件不存在、没有权限等）或本地文件出错时不重试；
+ * 每个任务的结果单独记录，一个任务失败不影响其他任务。工作线程自动带上提交线程的MDC（traceId）。
+ *
+ * <pre>
+ * try (FtpTransferEngine engine = FtpTransferEngine.builder()
+ *         .parallelismPerHost(4)
+ *         .maxAttempts(3)
+ *         .listener(listener)
+ *         .build()) {
+ *     List&lt;FtpTransferJob&gt; jobs = new ArrayList&lt;&gt;();
+ *     jobs.add(FtpTransferJob.upload(endpoint, new File("/data/a.csv"), "/upload/a.csv"));
+ *     FtpTransferEngine.BatchResult result = engine.transferAll(jobs);
+ * }
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+public class FtpTransferEngine implements Closeable {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final Listener NOOP_LISTENER = new Listener() {
+    };
+
+    private final FtpClientPool pool;
+
+    private final Executor executor;
+
+    /**
+     * 未指定executor时自己创建的线程池，close()时关闭
+     */
+    private final ExecutorService ownedExecutor;
+
+    private final int parallelismPerHost;
+
+    private final int queueCapacity;
+
+    private final int maxAttempts;
+
+    private final long backoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final long progressIntervalBytes;
+
+    private final Listener listener;
+
+    private final FtpTransferOptions transferOptions;
+
+    private final ConcurrentMap<FtpEndpoint, HostLane> lanes = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private FtpTransferEngine(Builder builder) {
+        this.pool = Objects.isNull(builder.pool) ? FtpUtils.getPool() : builder.pool;
+        this.parallelismPerHost = Math.max(1, Math.min(builder.parallelismPerHost, pool.getConfig().getMaxPerHost()));
+        this.queueCapacity = Math.max(1, builder.queueCapacity);
+        this.maxAttempts = Math.max(1, builder.maxAttempts);
+        this.backoffMillis = Math.max(0, builder.backoffMillis);
+        this.maxBackoffMillis = Math.max(this.backoffMillis, builder.maxBackoffMillis);
+        this.progressIntervalBytes = Math.max(1, builder.progressIntervalBytes);
+        this.listener = Objects.isNull(builder.listener) ? NOOP_LISTENER : builder.listener;
+        this.transferOptions = Objects.isNull(builder.transferOptions) ? FtpTransferOptions.defaults()
+                : builder.transferOptions;
+        if (Objects.isNull(builder.executor)) {
+            // 线程数由每个服务器的parallelismPerHost限制，这里不再限制
+            this.ownedExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "ftp-transfer-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.executor = builder.executor;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 提交一个任务，该服务器的队列已满时阻塞等待
+     *
+     * @param job 任务
+     * @return 任务结束后完成，失败时也正常完成，通过FtpTransferResult.isSuccess()判断；只有工作线程出现Error时异常完成
+     * @throws InterruptedException 等待队列时被中断
+     */
+    public CompletableFuture<FtpTransferResult> submit(FtpTransferJob job) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("ftp transfer engine closed");
+        }
+        Task task = new Task(job, ThreadMdcUtils.snapshot());
+        HostLane lane = lanes.computeIfAbsent(job.getEndpoint(), key -> new HostLane());
+        lane.queue.put(task);
+        startWorker(lane);
+        return task.future;
+    }
+
+    /**
+     * 提交全部任务并等待结束，结果按任务顺序排列
+     *
+     * @param jobs 任务
+     * @return 执行结果
+     * @throws InterruptedException 等待时被中断，已提交的任务继续执行
+     */
+    public BatchResult transferAll(List<FtpTransferJob> jobs) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<FtpTransferResult>> futures = new ArrayList<>(jobs.size());
+        for (FtpTransferJob job : jobs) {
+            futures.add(submit(job));
+        }
+        List<FtpTransferResult> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(await(jobs.get(i), futures.get(i)));
+        }
+        return new BatchResult(results, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 不再接受新任务，已提交的任务继续执行完
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (Objects.nonNull(ownedExecutor)) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 工作线程少于parallelismPerHost时启动一个
+     */
+    private void startWorker(HostLane lane) {
+        while (true) {
+            int workers = lane.workers.get();
+            if (workers >= parallelismPerHost) {
+                return;
+            }
+            if (lane.workers.compareAndSet(workers, workers + 1)) {
+                break;
+            }
+        }
+        try {
+            executor.execute(() -> work(lane));
+        } catch (RejectedExecutionException e) {
+            if (lane.workers.decrementAndGet() == 0) {
+                // 没有工作线程会再处理这个队列，剩下的任务直接失败
+                failQueued(lane, e);
+            }
+        }
+    }
+
+    /**
+     * 工作线程被中断（如线程池shutdownNow()）后不再取新任务，否则后面的任务都会在借出连接时立即失败；
+     * 最后一个工作线程因中断退出时，队列中剩下的任务以CancellationException结束
+     */
+    private void work(HostLane lane) {
+        boolean interrupted = false;
+        try {
+            Task task;
+            while (!(interrupted = Thread.currentThread().isInterrupted()) && (task = lane.queue.poll()) != null) {
+                Task current = task;
+                ThreadMdcUtils.wrap(() -> {
+                    try {
+                        current.future.complete(run(current.job));
+                    } catch (Throwable e) {
+                        // run()或监听器抛出Error时，等待结果的线程不会一直阻塞
+                        current.future.completeExceptionally(e);
+                        throw e;
+                    }
+                }, current.context).run();
+            }
+        } finally {
+            int workers = lane.workers.decrementAndGet();
+            if (interrupted) {
+                if (workers == 0) {
+                    failQueued(lane, new CancellationException("ftp transfer worker interrupted"));
+                }
+            } else if (!lane.queue.isEmpty()) {
+                // 退出前有新任务入队时，提交线程可能看到工作线程已满而没有启动新的
+                startWorker(lane);
+            }
+        }
+    }
+
+    private static void failQueued(HostLane lane, Throwable error) {
+        Task task;
+        while ((task = lane.queue.poll()) != null) {
+            task.future.complete(new FtpTransferResult(task.job, 0, 0, 0, error));
+        }
+    }
+
+    private FtpTransferResult run(FtpTransferJob job) {
+        long start = System.currentTimeMillis();
+        int attempt = 0;
+        long bytes = 0;
+        Throwable error;
+        while (true) {
+            attempt++;
+            Progress progress = new Progress(job);
+            try {
+                transfer(job, progress);
+                progress.finish();
+                error = null;
+                bytes = progress.bytes;
+                break;
+            } catch (IOException | RuntimeException e) {
+                error = e;
+                bytes = progress.bytes;
+            }
+            if (attempt >= maxAttempts || !isRetryable(error)) {
+                break;
+            }
+            long delay = backoff(attempt);
+            log.warn("ftp传输失败，{}ms后重试，{}，第{}次，{}", delay, job, attempt, error.toString());
+            notifyRetry(job, attempt, error);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error.addSuppressed(e);
+                break;
+            }
+        }
+        FtpTransferResult result = new FtpTransferResult(job, attempt, bytes, System.currentTimeMillis() - start, error);
+        if (!result.isSuccess()) {
+            log.error("ftp传输失败，{}，共{}次", job, attempt, error);
+        }
+        notifyComplete(result);
+        return result;
+    }
+
+    /**
+     * 先打开本地文件再借出连接，本地文件出错时不占用、不关闭连接
+     */
+    private void transfer(FtpTransferJob job, Progress progress) throws IOException {
+        if (job.getDirection() == FtpTransferJob.Direction.UPLOAD) {
+            File localFile = job.getLocalFile();
+            if (!localFile.isFile()) {
+                throw new FileNotFoundException("local file not found, " + localFile);
+            }
+            progress.total = localFile.length();
+            execute(job, progress, client -> upload(client, job, progress));
+            return;
+        }
+        Path target = job.getLocalFile().getAbsoluteFile().toPath();
+        Files.createDirectories(target.getParent());
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                execute(job, progress, client -> download(client, job, out));
+            }
+            FtpUtils.replace(part, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    /**
+     * 借出连接执行传输，服务器返回失败应答时控制连接仍然可用，其他异常关闭连接
+     */
+    private void execute(FtpTransferJob job, Progress progress, FtpClientPool.FtpCallback<Void> callback)
+            throws IOException {
+        try (FtpConnection connection = pool.borrow(job.getEndpoint())) {
+            FTPClient client = connection.getClient();
+            client.setCopyStreamListener(progress);
+            try {
+                callback.doWithClient(client);
+            } catch (ReplyException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                connection.invalidate();
+                throw e;
+            } finally {
+                client.setCopyStreamListener(null);
+            }
+        }
+    }
+
+    private Void upload(FTPClient client, FtpTransferJob job, Progress progress) throws IOException {
+        try {
+            FtpResumableTransfer.upload(client, job.getLocalFile(), job.getRemotePath(), transferOptions, progress);
+        } catch (IOException e) {
+            // 服务器返回失败应答时控制连接仍然可用，和其他IO异常区分开
+            int replyCode = client.getReplyCode();
+            if (e.getClass() == IOException.class
+                    && (FTPReply.isNegativeTransient(replyCode) || FTPReply.isNegativePermanent(replyCode))) {
+                throw new ReplyException(e, client);
+            }
+            throw e;
+        }
+        return null;
+    }
+
+    private static Void download(FTPClient client, FtpTransferJob job, OutputStream out) throws IOException {
+        if (!client.retrieveFile(job.getRemotePath(), out)) {
+            throw new ReplyException("ftp retrieve failed, " + job.getRemotePath(), client);
+        }
+        return null;
+    }
+
+    /**
+     * 服务器返回5xx、本地文件不存在或没有权限时重试也不会成功
+     */
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof ReplyException) {
+            return !((ReplyException) error).isPermanent();
+        }
+        return !(error instanceof FileSystemException || error instanceof FileNotFoundException);
+    }
+
+    /**
+     * 指数退避，在[delay/2, delay]之间随机，避免多个任务同时重试
+     */
+    private long backoff(int attempt) {
+        long delay = backoffMillis << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void notifyRetry(FtpTransferJob job, int attempt, Throwable error) {
+        try {
+            listener.onRetry(job, attempt, error);
+        } catch (RuntimeException e) {
+            log.warn("ftp传输监听器异常", e);
+        }
+    }
+
+    private void notifyComplete(FtpTransferResult result) {
+        try {
+            listener.onComplete(result);
+        } catch (RuntimeException e) {
+            log.warn("ftp传输监听器异常", e);
+        }
+    }
+
+    private static FtpTransferResult await(FtpTransferJob job, CompletableFuture<FtpTransferResult> future)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // 只有工作线程出现Error时异常结束
+            return new FtpTransferResult(job, 0, 0, 0, e.getCause());
+        }
+    }
+
+    /**
+     * 传输进度监听，在工作线程中回调，不要执行耗时操作，抛出的异常会被忽略
+     */
+    public interface Listener {
+
+        /**
+         * 传输了progressIntervalBytes字节以及传输结束时回调
+         *
+         * @param job              任务
+         * @param transferredBytes 已传输的字节数
+         * @param totalBytes       总字节数，下载时未知为-1
+         */
+        default void onProgress(FtpTransferJob job, long transferredBytes, long totalBytes) {
+        }
+
+        /**
+         * 第attempt次执行失败，即将重试
+         */
+        default void onRetry(FtpTransferJob job, int attempt, Throwable error) {
+        }
+
+        /**
+         * 任务结束，成功或重试后仍然失败
+         */
+        default void onComplete(FtpTransferResult result) {
+        }
+
+    }
+
+    /**
+     * 批量传输结果
+     */
+    @Getter
+    public static class BatchResult {
+
+        /**
+         * 每个任务的结果，按任务顺序排列
+         */
+        private final List<FtpTransferResult> results;
+
+        private final long elapsedMillis;
+
+        BatchResult(List<FtpTransferResult> results, long elapsedMillis) {
+            this.results = Collections.unmodifiableList(results);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public boolean isSuccess() {
+            return getFailed().isEmpty();
+        }
+
+        /**
+         * 失败的任务，按任务顺序排列
+         */
+        public List<FtpTransferResult> getFailed() {
+            List<FtpTransferResult> failed = new ArrayList<>();
+            for (FtpTransferResult result : results) {
+                if (!result.isSuccess()) {
+                    failed.add(result);
+                }
+            }
+            return failed;
+        }
+
+        /**
+         * 成功任务传输的总字节数
+         */
+        public long getTransferredBytes() {
+            long bytes = 0;
+            for (FtpTransferResult result : results) {
+                if (result.isSuccess()) {
+                    bytes += result.getBytes();
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("共%d个任务，失败%d个，传输%d字节，耗时%dms", results.size(), getFailed().size(),
+                    getTransferredBytes(), elapsedMillis);
+        }
+
+    }
+
+    /**
+     * 服务器返回失败应答，5xx为永久错误
+     */
+    private static final class ReplyException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int replyCode;
+
+        ReplyException(String message, FTPClient client) {
+            super(message + ", " + Objects.toString(client.getReplyString(), "").trim());
+            this.replyCode = client.getReplyCode();
+        }
+
+        ReplyException(IOException cause, FTPClient client) {
+            super(cause.getMessage(), cause);
+            this.replyCode = client.getReplyCode();
+        }
+
+        boolean isPermanent() {
+            return FTPReply.isNegativePermanent(replyCode);
+        }
+
+    }
+
+    /**
+     * 单个服务器的任务队列
+     */
+    private final class HostLane {
+
+        private final BlockingQueue<Task> queue;
+
+        private final AtomicInteger workers = new AtomicInteger();
+
+        HostLane() {
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        }
+
+    }
+
+    private static final class Task {
+
+        private final FtpTransferJob job;
+
+        private final Map<String, String> context;
+
+        private final CompletableFuture<FtpTransferResult> future = new CompletableFuture<>();
+
+        Task(FtpTransferJob job, Map<String, String> context) {
+            this.job = job;
+            this.context = context;
+        }
+
+    }
+
+    /**
+     * 单次执行的进度，由FTPClient在复制数据时回调
+     */
+    private final class Progress implements CopyStreamListener {
+
+        private final FtpTransferJob job;
+
+        private long total = -1;
+
+        private long bytes;
+
+        private long reported;
+
+        Progress(FtpTransferJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void bytesTransferred(CopyStreamEvent event) {
+            bytesTransferred(event.getTotalBytesTransferred(), event.getBytesTransferred(), event.getStreamSize());
+        }
+
+        @Override
+        public void bytesTransferred(long totalBytesTransferred, int bytesTransferred, long streamSize) {
+            if (streamSize >= 0) {
+                // 断点续传时只需要传输剩下的部分
+                total = streamSize;
+            }
+            bytes = totalBytesTransferred;
+            if (bytes - reported >= progressIntervalBytes) {
+                report();
+            }
+        }
+
+        /**
+         * 传输成功后补上最后一次回调
+         */
+        void finish() {
+            if (bytes != reported || bytes == 0) {
+                report();
+            }
+        }
+
+        private void report() {
+            reported = bytes;
+            try {
+                listener.onProgress(job, bytes, total);
+            } catch (RuntimeException e) {
+                log.warn("ftp传输监听器异常", e);
+            }
+        }
+
+    }
+
+    public static class Builder {
+
+        private FtpClientPool pool;
+
+        private Executor executor;
+
+        private int parallelismPerHost = 4;
+
+        private int queueCapacity = 1024;
+
+        private int maxAttempts = 3;
+
+        private long backoffMillis = 1_000;
+
+        private long maxBackoffMillis = 30_000;
+
+        private long progressIntervalBytes = 1024 * 1024;
+
+        private Listener listener;
+
+        private FtpTransferOptions transferOptions;
+
+        /**
+         * 连接池，默认FtpUtils.getPool()
+         */
+        public Builder pool(FtpClientPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * 工作线程池，默认创建守护线程，close()时关闭；指定时线程数不能少于服务器数乘以parallelismPerHost
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 每个服务器同时传输的文件数，默认4，不超过连接池的maxPerHost
+         */
+        public Builder parallelismPerHost(int parallelismPerHost) {
+            this.parallelismPerHost = parallelismPerHost;
+            return this;
+        }
+
+        /**
+         * 每个服务器等待传输的任务数上限，超出时submit()阻塞，默认1024
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * 每个任务最多执行的次数，包括第一次，默认3
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * 第一次重试前的等待时间，之后每次翻倍，默认1秒，最多maxBackoffMillis（默认30秒）
+         */
+        public Builder backoff(long backoffMillis, long maxBackoffMillis) {
+            this.backoffMillis = backoffMillis;
+            this.maxBackoffMillis = maxBackoffMillis;
+            return this;
+        }
+
+        /**
+         * 每传输多少字节回调一次onProgress()，默认1MB
+         */
+        public Builder progressIntervalBytes(long progressIntervalBytes) {
+            this.progressIntervalBytes = progressIntervalBytes;
+            return this;
+        }
+
+        public Builder listener(Listener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * 上传的缓冲区大小、断点续传和校验参数，默认FtpTransferOptions.defaults()
+         */
+        public Builder transferOptions(FtpTransferOptions transferOptions) {
+            this.transferOptions = transferOptions;
+            return this;
+        }
+
+        public FtpTransferEngine build() {
+            return new FtpTransferEngine(this);
+        }
+
+    }
+
+}
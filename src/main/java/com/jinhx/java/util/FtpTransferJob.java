@@ -0,0 +1,84 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * FtpTransferEngine的一个上传或下载任务
+ *
+ * remotePath为服务器上的完整路径（目录加文件名），以/开头时是绝对路径，否则相对登录后的初始目录。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public final class FtpTransferJob {
+
+    public enum Direction {
+
+        /**
+         * 本地文件上传到服务器，目录不存在时逐级创建
+         */
+        UPLOAD,
+
+        /**
+         * 服务器文件下载到本地，先写入同目录下的.part临时文件，完成后替换
+         */
+        DOWNLOAD
+
+    }
+
+    private final FtpEndpoint endpoint;
+
+    private final Direction direction;
+
+    private final File localFile;
+
+    private final String remotePath;
+
+    private FtpTransferJob(FtpEndpoint endpoint, Direction direction, File localFile, String remotePath) {
+        this.endpoint = Objects.requireNonNull(endpoint, "endpoint");
+        this.direction = direction;
+        this.localFile = Objects.requireNonNull(localFile, "localFile");
+        this.remotePath = Objects.requireNonNull(remotePath, "remotePath");
+        if (remotePath.isEmpty() || remotePath.endsWith("/")) {
+            throw new IllegalArgumentException("invalid remote path " + remotePath);
+        }
+    }
+
+    public static FtpTransferJob upload(FtpEndpoint endpoint, File localFile, String remotePath) {
+        return new FtpTransferJob(endpoint, Direction.UPLOAD, localFile, remotePath);
+    }
+
+    public static FtpTransferJob download(FtpEndpoint endpoint, String remotePath, File localFile) {
+        return new FtpTransferJob(endpoint, Direction.DOWNLOAD, localFile, remotePath);
+    }
+
+    /**
+     * remotePath中的目录，没有目录时返回空字符串
+     */
+    public String getRemoteDirectory() {
+        int index = remotePath.lastIndexOf('/');
+        if (index < 0) {
+            return "";
+        }
+        return index == 0 ? "/" : remotePath.substring(0, index);
+    }
+
+    /**
+     * remotePath中的文件名
+     */
+    public String getRemoteName() {
+        return remotePath.substring(remotePath.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public String toString() {
+        return direction == Direction.UPLOAD
+                ? direction + " " + localFile + " -> " + endpoint + remotePath
+                : direction + " " + endpoint + remotePath + " -> " + localFile;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+/**
+ * FtpUtils断点续传、分段下载的参数
+ *
+ * <pre>
+ * FtpTransferOptions options = FtpTransferOptions.builder()
+ *         .bufferSize(4 * 1024 * 1024)
+ *         .verifyChecksum(true)
+ *         .build();
+ * FtpUtils.downloadFile(endpoint, "/data/big.tar", new File("/tmp/big.tar"), options);
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public class FtpTransferOptions {
+
+    private static final FtpTransferOptions DEFAULT = builder().build();
+
+    private final int bufferSize;
+
+    private final boolean resume;
+
+    private final boolean verifyChecksum;
+
+    private FtpTransferOptions(Builder builder) {
+        this.bufferSize = builder.bufferSize;
+        this.resume = builder.resume;
+        this.verifyChecksum = builder.verifyChecksum;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 默认参数：1MB缓冲区，断点续传，只校验大小
+     */
+    public static FtpTransferOptions defaults() {
+        return DEFAULT;
+    }
+
+    public static class Builder {
+
+        private int bufferSize = 1024 * 1024;
+
+        private boolean resume = true;
+
+        private boolean verifyChecksum;
+
+        /**
+         * 本地文件和数据连接之间复制数据的缓冲区大小，默认1MB，同样大小的缓冲区在传输之间复用
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("invalid buffer size " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * 是否断点续传，默认true：下载时从本地.part文件的长度继续（REST），上传时从服务器上.part文件的长度继续（APPE）；
+         * false时每次都从头传输；不会在服务器上已有的目标文件后追加
+         */
+        public Builder resume(boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        /**
+         * 传输后是否比较本地和服务器上文件的MD5，默认false只比较大小；
+         * 服务器需要支持XMD5或MD5命令，都不支持时只比较大小；断点续传前服务器上的文件被修改时只有校验MD5才能发现
+         */
+        public Builder verifyChecksum(boolean verifyChecksum) {
+            this.verifyChecksum = verifyChecksum;
+            return this;
+        }
+
+        public FtpTransferOptions build() {
+            return new FtpTransferOptions(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * FtpTransferEngine中单个任务的执行结果
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public final class FtpTransferResult {
+
+    private final FtpTransferJob job;
+
+    /**
+     * 执行次数，包括第一次和重试
+     */
+    private final int attempts;
+
+    /**
+     * 最后一次执行传输的字节数
+     */
+    private final long bytes;
+
+    /**
+     * 从开始执行到结束的耗时，包括重试等待的时间
+     */
+    private final long elapsedMillis;
+
+    /**
+     * 最后一次失败的异常，成功时为null
+     */
+    private final Throwable error;
+
+    FtpTransferResult(FtpTransferJob job, int attempts, long bytes, long elapsedMillis, Throwable error) {
+        this.job = job;
+        this.attempts = attempts;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    public boolean isSuccess() {
+        return Objects.isNull(error);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s，%s，执行%d次，%d字节，耗时%dms%s", job, isSuccess() ? "成功" : "失败", attempts, bytes,
+                elapsedMillis, isSuccess() ? "" : "，" + error);
+    }
+
+}
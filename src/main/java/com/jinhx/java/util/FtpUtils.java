@@ -1,19 +1,36 @@
 package com.jinhx.java.util;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.MalformedServerReplyException;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPCmd;
 import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPListParseEngine;
 import org.apache.commons.net.ftp.FTPReply;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * ftp上传下载工具类
+ *
+ * 上传下载通过共享的FtpClientPool复用已登录的连接，不再每次连接、登录、退出，
+ * 连接池参数可以通过setPool()替换。
+ * 多个文件批量上传下载使用FtpTransferEngine，按服务器并行传输并失败重试。
+ * 下载直接按文件名获取，不列出目录；需要遍历大目录时使用listFiles()分页处理。
+ * 大文件使用FtpTransferOptions参数的uploadFile()、downloadFile()断点续传，或downloadRange()分段并行下载。
  */
 @Slf4j
 public class FtpUtils {
 
+    private static volatile FtpClientPool pool;
+
     public static void main(String[] args) throws Exception {
         log.info("测试开始!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
         // 1
@@ -28,6 +45,37 @@ public class FtpUtils {
         log.info("测试结束!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
     }
 
+    /**
+     * 共享的连接池，第一次使用时按默认参数创建
+     */
+    public static FtpClientPool getPool() {
+        FtpClientPool current = pool;
+        if (Objects.isNull(current)) {
+            synchronized (FtpUtils.class) {
+                current = pool;
+                if (Objects.isNull(current)) {
+                    current = new FtpClientPool(FtpPoolConfig.defaults());
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 替换共享的连接池，原来的连接池被关闭
+     */
+    public static void setPool(FtpClientPool ftpClientPool) {
+        FtpClientPool previous;
+        synchronized (FtpUtils.class) {
+            previous = pool;
+            pool = Objects.requireNonNull(ftpClientPool, "ftpClientPool");
+        }
+        if (Objects.nonNull(previous) && previous != ftpClientPool) {
+            previous.close();
+        }
+    }
+
     /**
      * @Author: jinhaoxun
      * @Description: 向FTP服务器上传文件
@@ -46,58 +94,75 @@ public class FtpUtils {
     public static boolean uploadFile(String host, int port, String userName, String password, String basePath,
                                      String filePath, String filename, InputStream input) throws Exception{
         boolean result = false;
-        FTPClient ftp = new FTPClient();
-        try {
-            int reply;
-            // 连接FTP服务器
-            ftp.connect(host, port);
-            // 如果采用默认端口，可以使用ftp.connect(host)的方式直接连接FTP服务器
-            // 登录
-            ftp.login(userName, password);
-            reply = ftp.getReplyCode();
-            if (!FTPReply.isPositiveCompletion(reply)) {
-                ftp.disconnect();
-                return result;
-            }
-            //切换到上传目录
-            if (!ftp.changeWorkingDirectory(basePath+filePath)) {
-                //如果目录不存在创建目录
-                String[] dirs = filePath.split("/");
-                String tempPath = basePath;
-                for (String dir : dirs) {
-                    if (null == dir || "".equals(dir)){
-                        continue;
-                    }
-                    tempPath += "/" + dir;
-                    if (!ftp.changeWorkingDirectory(tempPath)) {
-                        if (!ftp.makeDirectory(tempPath)) {
-                            return result;
-                        } else {
-                            ftp.changeWorkingDirectory(tempPath);
+        FtpEndpoint endpoint = new FtpEndpoint(host, port, userName, password);
+        // 从连接池借出已登录的连接，用完归还
+        try (FtpConnection connection = getPool().borrow(endpoint)) {
+            FTPClient ftp = connection.getClient();
+            try {
+                //切换到上传目录
+                if (!ftp.changeWorkingDirectory(basePath+filePath)) {
+                    //如果目录不存在创建目录
+                    String[] dirs = filePath.split("/");
+                    String tempPath = basePath;
+                    for (String dir : dirs) {
+                        if (null == dir || "".equals(dir)){
+                            continue;
+                        }
+                        tempPath += "/" + dir;
+                        if (!ftp.changeWorkingDirectory(tempPath)) {
+                            if (!ftp.makeDirectory(tempPath)) {
+                                return result;
+                            } else {
+                                ftp.changeWorkingDirectory(tempPath);
+                            }
                         }
                     }
                 }
+                //设置上传文件的类型为二进制类型
+                ftp.setFileType(FTP.BINARY_FILE_TYPE);
+                //上传文件
+                if (!ftp.storeFile(filename, input)) {
+                    return result;
+                }
+                input.close();
+                result = true;
+            } catch (IOException e) {
+                connection.invalidate();
+                throw e;
             }
-            //设置上传文件的类型为二进制类型
-            ftp.setFileType(FTP.BINARY_FILE_TYPE);
-            //上传文件
-            if (!ftp.storeFile(filename, input)) {
-                return result;
-            }
-            input.close();
-            ftp.logout();
-            result = true;
         } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (ftp.isConnected()) {
-                try {
-                    ftp.disconnect();
-                } catch (IOException ioe) {
+            log.error("上传文件失败，{}，{}{}/{}", endpoint, basePath, filePath, filename, e);
+        }
+        return result;
+    }
+
+    /**
+     * 切换到目录，不存在时逐级创建，path以/开头时从根目录开始，否则从当前目录开始
+     *
+     * @param ftp  已登录的FTPClient
+     * @param path 目录
+     * @return 是否切换成功
+     */
+    static boolean changeOrMakeDirectory(FTPClient ftp, String path) throws IOException {
+        if (ftp.changeWorkingDirectory(path)) {
+            return true;
+        }
+        if (path.startsWith("/") && !ftp.changeWorkingDirectory("/")) {
+            return false;
+        }
+        for (String dir : path.split("/")) {
+            if (dir.isEmpty()) {
+                continue;
+            }
+            if (!ftp.changeWorkingDirectory(dir)) {
+                // 多个连接同时创建同一个目录时makeDirectory可能失败，以能否切换过去为准
+                ftp.makeDirectory(dir);
+                if (!ftp.changeWorkingDirectory(dir)) {
+                    return false;
                 }
             }
         }
-        return result;
+        return true;
     }
 
     /**
@@ -116,45 +181,201 @@ public class FtpUtils {
      */
     public static boolean downloadFile(String host, int port, String userName, String password, String remotePath,
                                        String fileName, String localPath) throws Exception {
+        return downloadFile(host, port, userName, password, remotePath, fileName, localPath, false);
+    }
 
+    /**
+     * 从FTP服务器下载文件，直接按文件名下载，不列出整个目录
+     *
+     * 先写入本地同目录下的.part临时文件，下载完成后替换，失败时不会留下不完整的文件，也不会覆盖已有的文件。
+     *
+     * @param remotePath FTP服务器上的相对路径
+     * @param fileName   要下载的文件名
+     * @param localPath  下载后保存到本地的路径
+     * @param probe      是否先通过MLST（服务器不支持时用SIZE）确认文件存在，文件不存在时不打开数据连接，下载后校验大小
+     * @return 是否下载成功，文件不存在时返回false
+     */
+    public static boolean downloadFile(String host, int port, String userName, String password, String remotePath,
+                                       String fileName, String localPath, boolean probe) throws Exception {
         boolean result = false;
-        FTPClient ftp = new FTPClient();
-        try {
-            int reply;
-            ftp.connect(host, port);
-            // 如果采用默认端口，可以使用ftp.connect(host)的方式直接连接FTP服务器
-            // 登录
-            ftp.login(userName, password);
-            reply = ftp.getReplyCode();
-            if (!FTPReply.isPositiveCompletion(reply)) {
-                ftp.disconnect();
-                return result;
-            }
-            // 转移到FTP服务器目录
-            ftp.changeWorkingDirectory(remotePath);
-            FTPFile[] fs = ftp.listFiles();
-            for (FTPFile ff : fs) {
-                if (ff.getName().equals(fileName)) {
-                    java.io.File localFile = new File(localPath + "/" + ff.getName());
-
-                    OutputStream is = new FileOutputStream(localFile);
-                    ftp.retrieveFile(ff.getName(), is);
-                    is.close();
+        FtpEndpoint endpoint = new FtpEndpoint(host, port, userName, password);
+        File localFile = new File(localPath, fileName);
+        File partFile = new File(localPath, fileName + ".part");
+        // 从连接池借出已登录的连接，用完归还
+        try (FtpConnection connection = getPool().borrow(endpoint)) {
+            FTPClient ftp = connection.getClient();
+            try {
+                // 转移到FTP服务器目录
+                if (!ftp.changeWorkingDirectory(remotePath)) {
+                    log.warn("FTP服务器目录不存在，{}，{}，{}", endpoint, remotePath, ftp.getReplyString().trim());
+                    return result;
+                }
+                long size = -1;
+                if (probe) {
+                    FTPFile remoteFile = stat(ftp, fileName);
+                    if (Objects.isNull(remoteFile) || remoteFile.isDirectory()) {
+                        log.warn("FTP服务器文件不存在，{}，{}/{}", endpoint, remotePath, fileName);
+                        return result;
+                    }
+                    size = remoteFile.getSize();
+                }
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(partFile))) {
+                    if (!ftp.retrieveFile(fileName, out)) {
+                        log.warn("下载文件失败，{}，{}/{}，{}", endpoint, remotePath, fileName, ftp.getReplyString().trim());
+                        return result;
+                    }
+                }
+                if (size >= 0 && partFile.length() != size) {
+                    log.warn("下载文件大小不一致，{}，{}/{}，服务器{}字节，本地{}字节", endpoint, remotePath, fileName, size,
+                            partFile.length());
+                    return result;
                 }
+                replace(partFile.toPath(), localFile.toPath());
+                result = true;
+            } catch (IOException e) {
+                connection.invalidate();
+                throw e;
             }
-            ftp.logout();
-            result = true;
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("下载文件失败，{}，{}/{}", endpoint, remotePath, fileName, e);
         } finally {
-            if (ftp.isConnected()) {
-                try {
-                    ftp.disconnect();
-                } catch (IOException ioe) {
+            Files.deleteIfExists(partFile.toPath());
+        }
+        return result;
+    }
+
+    /**
+     * 断点续传下载，失败后再次调用时从本地.part文件的长度继续，完成并校验大小（可选MD5）后替换localFile
+     *
+     * @param endpoint   服务器
+     * @param remotePath 服务器上的文件路径
+     * @param localFile  本地文件，目录不存在时创建
+     * @param options    缓冲区大小、是否续传、是否校验MD5
+     * @return 本次传输的字节数
+     */
+    public static long downloadFile(FtpEndpoint endpoint, String remotePath, File localFile,
+                                    FtpTransferOptions options) throws IOException {
+        return getPool().execute(endpoint, ftp -> FtpResumableTransfer.download(ftp, remotePath, localFile, options));
+    }
+
+    /**
+     * 断点续传上传，先写入服务器上的.part文件，失败后再次调用时从其长度追加，完成并校验大小（可选MD5）后重命名为remotePath，
+     * 目录不存在时逐级创建
+     *
+     * @param endpoint   服务器
+     * @param localFile  本地文件
+     * @param remotePath 服务器上的文件路径
+     * @param options    缓冲区大小、是否续传、是否校验MD5
+     * @return 本次传输的字节数
+     */
+    public static long uploadFile(FtpEndpoint endpoint, File localFile, String remotePath,
+                                  FtpTransferOptions options) throws IOException {
+        return getPool().execute(endpoint, ftp -> FtpResumableTransfer.upload(ftp, localFile, remotePath, options));
+    }
+
+    /**
+     * 分段下载，把服务器文件的[offset, offset + length)写入本地文件的相同位置，
+     * 多个线程各自下载一段写入同一个本地文件即可并行下载大文件，某一段失败时只需重新下载该段
+     *
+     * @param endpoint   服务器
+     * @param remotePath 服务器上的文件路径
+     * @param offset     开始位置
+     * @param length     长度，超出文件末尾时抛出EOFException
+     * @param localFile  本地文件，不存在时创建，不会被截断
+     * @param options    缓冲区大小
+     * @return 传输的字节数
+     */
+    public static long downloadRange(FtpEndpoint endpoint, String remotePath, long offset, long length,
+                                     File localFile, FtpTransferOptions options) throws IOException {
+        return getPool().execute(endpoint,
+                ftp -> FtpResumableTransfer.downloadRange(ftp, remotePath, offset, length, localFile, options));
+    }
+
+    /**
+     * 分页列出目录中的文件，每页最多pageSize个交给handler
+     *
+     * listFiles()一次解析出整个目录的FTPFile[]，文件很多时占用大量内存；这里通过FTPListParseEngine按页解析，
+     * 服务器返回的列表只以原始行的形式缓存，处理完的页可以被回收，适合需要遍历大目录的批量同步。
+     *
+     * @param remotePath FTP服务器上的目录
+     * @param pageSize   每页文件数
+     * @param handler    每页的处理，无法解析的行已被跳过
+     * @return 文件总数
+     */
+    public static long listFiles(String host, int port, String userName, String password, String remotePath,
+                                 int pageSize, PageHandler handler) throws IOException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("invalid page size " + pageSize);
+        }
+        return getPool().execute(new FtpEndpoint(host, port, userName, password), ftp -> {
+            FTPListParseEngine engine = ftp.initiateListParsing(remotePath);
+            long count = 0;
+            while (engine.hasNext()) {
+                FTPFile[] page = engine.getNext(pageSize);
+                int size = 0;
+                for (FTPFile file : page) {
+                    if (Objects.nonNull(file)) {
+                        page[size++] = file;
+                    }
+                }
+                if (size > 0) {
+                    handler.handle(size == page.length ? page : Arrays.copyOf(page, size));
+                    count += size;
                 }
             }
+            return count;
+        });
+    }
+
+    /**
+     * 获取单个文件的信息，不列出目录：服务器支持MLST时用MLST，否则用SIZE，只有名称和大小
+     *
+     * @param ftp  已登录的FTPClient
+     * @param path 文件路径
+     * @return 文件不存在时返回null，服务器也不支持SIZE时返回大小为-1的FTPFile
+     */
+    static FTPFile stat(FTPClient ftp, String path) throws IOException {
+        // FEAT的结果在每个连接上只查询一次
+        if (ftp.hasFeature(FTPCmd.MLST.getCommand())) {
+            try {
+                return ftp.mlistFile(path);
+            } catch (MalformedServerReplyException e) {
+                // 部分服务器MLST应答的格式不标准（例如条目行缺少前导空格），改用SIZE
+                log.debug("ftp mlst reply malformed, {}", e.getMessage());
+            }
         }
-        return result;
+        FTPFile file = new FTPFile();
+        file.setName(path.substring(path.lastIndexOf('/') + 1));
+        file.setType(FTPFile.FILE_TYPE);
+        file.setSize(-1);
+        int reply = ftp.sendCommand("SIZE", path);
+        if (reply == FTPReply.FILE_STATUS) {
+            file.setSize(Long.parseLong(ftp.getReplyString().substring(4).trim()));
+            return file;
+        }
+        if (reply == FTPReply.UNRECOGNIZED_COMMAND || reply == FTPReply.COMMAND_NOT_IMPLEMENTED
+                || reply == FTPReply.COMMAND_NOT_IMPLEMENTED_FOR_PARAMETER) {
+            return file;
+        }
+        return FTPReply.isNegativePermanent(reply) ? null : file;
+    }
+
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * listFiles()的分页处理
+     */
+    @FunctionalInterface
+    public interface PageHandler {
+
+        void handle(FTPFile[] page) throws IOException;
+
     }
 
 }
@@ -2,21 +2,32 @@ package com.jinhx.java.util;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.RandomAccess;
 
 /**
  * ListUtil
  *
+ * split开头的方法返回互相独立的新集合，partition开头的方法不复制元素，返回视图或者按需生成。
+ * 所有方法都只遍历一遍原集合，时间复杂度O(n)。
+ *
  * @author jinhx
  * @since 2022-01-10
  */
 @Slf4j
 public class ListUtil {
 
+    /**
+     * 流式分割时每组的最大初始容量，避免splitSize很大时一次性申请过大的数组
+     */
+    private static final int MAX_INITIAL_CAPACITY = 8192;
+
     /**
      * 分割list集合
      *
@@ -34,14 +45,7 @@ public class ListUtil {
             return Collections.singletonList(list);
         }
 
-        // 计算分割后的大小
-        int maxSize = (list.size() + splitSize - 1) / splitSize;
-
-        return Stream.iterate(0, n -> n + 1)
-                .limit(maxSize)
-                .map(a -> list.stream().skip((long) a * splitSize).limit(splitSize).collect(Collectors.toList()))
-                .filter(b -> !b.isEmpty())
-                .collect(Collectors.toList());
+        return split(list, splitSize);
     }
 
     /**
@@ -62,13 +66,178 @@ public class ListUtil {
         }
 
         // 计算分割后的大小
-        int maxSize = (list.size() + splitSize - 1) / splitSize;
+        int maxSize = chunkCount(list.size(), splitSize);
+
+        return split(list, maxSize);
+    }
+
+    /**
+     * 均衡分割list集合，各组大小最多相差1，余数分摊到前面的组
+     * 例如10个元素分4组得到3、3、2、2，而splitByOutsideListSize得到3、3、3、1
+     *
+     * @param list 集合数据
+     * @param groupCount 均分为几组
+     * @return 分割后的集合，元素不足时组数等于元素个数
+     */
+    public static <T> List<List<T>> splitBalanced(List<T> list, int groupCount) {
+        // 判断集合是否为空
+        if (Objects.isNull(list) || list.size() < 1){
+            return Collections.emptyList();
+        }
+
+        if (groupCount < 2){
+            return Collections.singletonList(list);
+        }
+
+        int size = list.size();
+        int groups = Math.min(groupCount, size);
+        int baseSize = size / groups;
+        int remainder = size % groups;
+        List<List<T>> result = new ArrayList<>(groups);
+        Iterator<T> iterator = list.iterator();
+        for (int i = 0; i < groups; i++) {
+            int chunkSize = i < remainder ? baseSize + 1 : baseSize;
+            List<T> chunk = new ArrayList<>(chunkSize);
+            for (int j = 0; j < chunkSize; j++) {
+                chunk.add(iterator.next());
+            }
+            result.add(chunk);
+        }
+        return result;
+    }
+
+    /**
+     * 分割list集合，不复制元素
+     * 对于ArrayList等RandomAccess集合，每组都是原集合的subList视图，修改会反映到原集合，
+     * 原集合发生结构性修改（增删元素）后视图失效；其余集合退化为复制分割。
+     *
+     * @param list 集合数据
+     * @param splitSize 每组分割几个
+     * @return 分割后的集合
+     */
+    public static <T> List<List<T>> partitionView(List<T> list, int splitSize) {
+        // 判断集合是否为空
+        if (Objects.isNull(list) || list.size() < 1){
+            return Collections.emptyList();
+        }
+
+        if (splitSize < 1){
+            return Collections.singletonList(list);
+        }
+
+        if (list instanceof RandomAccess) {
+            return new Partition<>(list, splitSize);
+        }
+        return split(list, splitSize);
+    }
+
+    /**
+     * 流式分割，每次next()时才从迭代器读取下一组，不需要把输入全部放到内存中
+     *
+     * @param iterator 数据迭代器，例如数据库游标
+     * @param splitSize 每组分割几个
+     * @return 每组数据的迭代器
+     */
+    public static <T> Iterator<List<T>> partition(Iterator<T> iterator, int splitSize) {
+        if (Objects.isNull(iterator)) {
+            return Collections.emptyIterator();
+        }
+
+        int size = Math.max(1, splitSize);
+        return new Iterator<List<T>>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> chunk = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+                while (chunk.size() < size && iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                }
+                return chunk;
+            }
+        };
+    }
+
+    /**
+     * 流式分割
+     *
+     * @param iterable 数据
+     * @param splitSize 每组分割几个
+     * @return 每组数据，可以直接用于for循环
+     */
+    public static <T> Iterable<List<T>> partition(Iterable<T> iterable, int splitSize) {
+        if (Objects.isNull(iterable)) {
+            return Collections.emptyList();
+        }
+        return () -> partition(iterable.iterator(), splitSize);
+    }
+
+    /**
+     * 按固定大小复制分割，只遍历一遍
+     */
+    private static <T> List<List<T>> split(List<T> list, int chunkSize) {
+        int size = list.size();
+        List<List<T>> result = new ArrayList<>(chunkCount(size, chunkSize));
+        if (list instanceof RandomAccess) {
+            for (int from = 0; from < size; ) {
+                int to = (int) Math.min(size, (long) from + chunkSize);
+                List<T> chunk = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    chunk.add(list.get(i));
+                }
+                result.add(chunk);
+                from = to;
+            }
+            return result;
+        }
+
+        Iterator<List<T>> iterator = partition(list.iterator(), chunkSize);
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    private static int chunkCount(int size, int chunkSize) {
+        return (int) (((long) size + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * subList视图组成的分组，get时才创建视图
+     */
+    private static class Partition<T> extends AbstractList<List<T>> implements RandomAccess {
+
+        private final List<T> list;
+
+        private final int chunkSize;
+
+        Partition(List<T> list, int chunkSize) {
+            this.list = list;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public List<T> get(int index) {
+            int size = size();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+            }
+            int from = index * chunkSize;
+            return list.subList(from, (int) Math.min(list.size(), (long) from + chunkSize));
+        }
+
+        @Override
+        public int size() {
+            return chunkCount(list.size(), chunkSize);
+        }
 
-        return Stream.iterate(0, n -> n + 1)
-                .limit(splitSize)
-                .map(a -> list.stream().skip((long) a * maxSize).limit(maxSize).collect(Collectors.toList()))
-                .filter(b -> !b.isEmpty())
-                .collect(Collectors.toList());
     }
 
 }
@@ -2,16 +2,18 @@ package com.jinhx.java.util;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * MapUtil
  *
+ * 字段读写计划按类缓存，见FieldAccessPlan，包含父类字段，不包含static字段。
+ *
  * @author jinhx
  * @since 2022-05-06
  */
@@ -30,21 +32,42 @@ public class MapUtil {
         }
 
         try {
-            Field[] fields = obj.getClass().getDeclaredFields();
-            Map<String, Object> map = new HashMap<>();
-            for (Field field : fields) {
-                field.setAccessible(true);
-                map.put(field.getName(), field.get(obj));
-            }
-            return map;
+            return toMap(obj, FieldAccessPlan.of(obj.getClass()));
         } catch (Exception e) {
             log.error("MapUtil objectToMap fail error=", e);
             return Collections.emptyMap();
         }
     }
 
+    /**
+     * object的只读map视图，不复制字段，读取时直接从对象中取值，对象修改后视图随之变化
+     * 适合只读取少数几个key或者直接序列化的场景，需要独立的map时使用objectToMap
+     *
+     * @param obj obj
+     * @return Map<String, Object>
+     */
+    public static <T> Map<String, Object> asMap(T obj) {
+        return asMap(obj, false);
+    }
+
+    /**
+     * object的map视图
+     *
+     * @param obj obj
+     * @param writable 为true时put直接写入对象的字段，值按字段类型转换，不能新增或删除key
+     * @return Map<String, Object>
+     */
+    public static <T> Map<String, Object> asMap(T obj, boolean writable) {
+        if (Objects.isNull(obj)) {
+            return Collections.emptyMap();
+        }
+
+        return new ObjectMapView(obj, FieldAccessPlan.of(obj.getClass()), writable);
+    }
+
     /**
      * map转换object
+     * map中的值按字段类型转换，例如Integer转long、String转枚举；map中没有的key和final字段保持不变，null不会写入基本类型字段
      *
      * @param map map
      * @param clazz clazz
@@ -56,21 +79,90 @@ public class MapUtil {
         }
 
         try {
-            T obj = clazz.newInstance();
-            Field[] fields = obj.getClass().getDeclaredFields();
-            for (Field field : fields) {
-                int mod = field.getModifiers();
-                if (Modifier.isStatic(mod) || Modifier.isFinal(mod)) {
+            return toObject(map, FieldAccessPlan.of(clazz), clazz);
+        } catch (Exception e) {
+            log.error("MapUtil mapToObject fail error=", e);
+            return null;
+        }
+    }
+
+    /**
+     * object集合批量转换map，集合中的元素为null时对应位置为空map
+     *
+     * @param objs objs
+     * @return List<Map<String, Object>>
+     */
+    public static <T> List<Map<String, Object>> objectsToMaps(List<T> objs) {
+        if (Objects.isNull(objs) || objs.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        try {
+            List<Map<String, Object>> maps = new ArrayList<>(objs.size());
+            FieldAccessPlan plan = null;
+            for (T obj : objs) {
+                if (Objects.isNull(obj)) {
+                    maps.add(Collections.emptyMap());
                     continue;
                 }
-                field.setAccessible(true);
-                field.set(obj, map.get(field.getName()));
+                if (Objects.isNull(plan) || obj.getClass() != plan.getType()) {
+                    plan = FieldAccessPlan.of(obj.getClass());
+                }
+                maps.add(toMap(obj, plan));
             }
-            return obj;
+            return maps;
         } catch (Exception e) {
-            log.error("MapUtil mapToObject fail error=", e);
-            return null;
+            log.error("MapUtil objectsToMaps fail error=", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * map集合批量转换object，集合中的元素为null时对应位置为null
+     *
+     * @param maps maps
+     * @param clazz clazz
+     * @return List<T>
+     */
+    public static <T> List<T> mapsToObjects(List<Map<String, Object>> maps, Class<T> clazz) {
+        if (Objects.isNull(maps) || maps.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        try {
+            FieldAccessPlan plan = FieldAccessPlan.of(clazz);
+            List<T> objs = new ArrayList<>(maps.size());
+            for (Map<String, Object> map : maps) {
+                objs.add(Objects.isNull(map) ? null : toObject(map, plan, clazz));
+            }
+            return objs;
+        } catch (Exception e) {
+            log.error("MapUtil mapsToObjects fail error=", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static Map<String, Object> toMap(Object obj, FieldAccessPlan plan) throws IllegalAccessException {
+        FieldAccessPlan.FieldAccessor[] accessors = plan.getAccessors();
+        Map<String, Object> map = new HashMap<>(plan.getMapCapacity());
+        for (FieldAccessPlan.FieldAccessor accessor : accessors) {
+            map.put(accessor.getName(), accessor.get(obj));
+        }
+        return map;
+    }
+
+    private static <T> T toObject(Map<String, Object> map, FieldAccessPlan plan, Class<T> clazz) throws IllegalAccessException {
+        T obj = clazz.cast(plan.newInstance());
+        for (FieldAccessPlan.FieldAccessor accessor : plan.getAccessors()) {
+            if (!accessor.isWritable()) {
+                continue;
+            }
+            Object value = map.get(accessor.getName());
+            if (Objects.nonNull(value) || map.containsKey(accessor.getName())) {
+                accessor.set(obj, value);
+            }
         }
+        return obj;
     }
 
 }
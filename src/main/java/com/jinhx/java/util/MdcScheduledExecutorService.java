@@ -0,0 +1,44 @@
+package com.jinhx.java.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自动传递MDC的定时线程池装饰器，通过ThreadMdcUtils.wrap(ScheduledExecutorService)创建
+ * 周期任务在调度时获取一次快照，之后每次执行都使用这份快照
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class MdcScheduledExecutorService extends MdcExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService delegate;
+
+    MdcScheduledExecutorService(ScheduledExecutorService delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return delegate.schedule(ThreadMdcUtils.wrap(command, ThreadMdcUtils.snapshot()), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return delegate.schedule(ThreadMdcUtils.wrap(callable, ThreadMdcUtils.snapshot()), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return delegate.scheduleAtFixedRate(ThreadMdcUtils.wrap(command, ThreadMdcUtils.snapshot()), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return delegate.scheduleWithFixedDelay(ThreadMdcUtils.wrap(command, ThreadMdcUtils.snapshot()), initialDelay, delay, unit);
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.jinhx.java.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 对象的Map视图，不复制字段，读写直接作用在对象上
+ *
+ * key的集合和下标索引来自按类缓存的FieldAccessPlan，视图本身只保存对象和计划的引用。
+ * get、containsKey、size不分配内存（基本类型字段的值需要装箱）；遍历时只创建迭代器和轻量的entry，entry的值在读取时才从对象中取。
+ * 可写视图的put按字段类型转换后写入对象，不能新增key，也不能删除key。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class ObjectMapView extends AbstractMap<String, Object> {
+
+    private final Object target;
+
+    private final FieldAccessPlan plan;
+
+    private final boolean writable;
+
+    private Set<Map.Entry<String, Object>> entrySet;
+
+    ObjectMapView(Object target, FieldAccessPlan plan, boolean writable) {
+        this.target = target;
+        this.plan = plan;
+        this.writable = writable;
+    }
+
+    @Override
+    public int size() {
+        return plan.getAccessors().length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return plan.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = plan.indexOf(key);
+        return index < 0 ? null : read(index);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = plan.indexOf(key);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown field '" + key + "' of " + target.getClass().getName());
+        }
+        Object previous = read(index);
+        write(index, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        Set<Map.Entry<String, Object>> entries = entrySet;
+        if (entries == null) {
+            entries = new EntrySet();
+            entrySet = entries;
+        }
+        return entries;
+    }
+
+    private Object read(int index) {
+        try {
+            return plan.getAccessors()[index].get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void write(int index, Object value) {
+        FieldAccessPlan.FieldAccessor accessor = plan.getAccessors()[index];
+        if (!writable || !accessor.isWritable()) {
+            throw new UnsupportedOperationException("Field '" + accessor.getName() + "' is read-only");
+        }
+        try {
+            accessor.set(target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new Iterator<Map.Entry<String, Object>>() {
+
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size();
+                }
+
+                @Override
+                public Map.Entry<String, Object> next() {
+                    if (index >= size()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new Entry(index++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ObjectMapView.this.size();
+        }
+
+    }
+
+    private final class Entry implements Map.Entry<String, Object> {
+
+        private final int index;
+
+        Entry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return plan.getAccessors()[index].getName();
+        }
+
+        @Override
+        public Object getValue() {
+            return read(index);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = read(index);
+            write(index, value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object value = getValue();
+            return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.jinhx.java.util;
+
+import com.jcraft.jsch.ChannelSftp;
+
+import java.io.Closeable;
+
+/**
+ * 从SftpSessionPool借出的通道，close()时归还，不是线程安全的
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public final class SftpConnection implements Closeable {
+
+    private final SftpSessionPool pool;
+
+    private final SftpSessionPool.HostPool hostPool;
+
+    private final SftpSessionPool.PooledChannel pooled;
+
+    private boolean broken;
+
+    private boolean returned;
+
+    SftpConnection(SftpSessionPool pool, SftpSessionPool.HostPool hostPool, SftpSessionPool.PooledChannel pooled) {
+        this.pool = pool;
+        this.hostPool = hostPool;
+        this.pooled = pooled;
+    }
+
+    /**
+     * 已打开的ChannelSftp，不要调用disconnect()和exit()
+     */
+    public ChannelSftp getChannel() {
+        return pooled.getChannel();
+    }
+
+    public SftpEndpoint getEndpoint() {
+        return hostPool.getEndpoint();
+    }
+
+    /**
+     * 标记通道已损坏，归还时关闭，出现IOException或传输中断时调用
+     */
+    public void invalidate() {
+        broken = true;
+    }
+
+    /**
+     * 归还到连接池，多次调用只归还一次
+     */
+    @Override
+    public void close() {
+        if (returned) {
+            return;
+        }
+        returned = true;
+        pool.release(hostPool, pooled, broken);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * SFTP服务器地址和账号，SftpSessionPool按全部字段区分连接池
+ * 密码、私钥也参与比较，认证信息不同时不会借到其他调用方已登录的会话
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public final class SftpEndpoint {
+
+    private final String host;
+
+    private final int port;
+
+    private final String userName;
+
+    private final String password;
+
+    /**
+     * 私钥文件路径，为null时使用密码登录
+     */
+    private final String privateKey;
+
+    private final String passphrase;
+
+    public SftpEndpoint(String host, int port, String userName, String password) {
+        this(host, port, userName, password, null, null);
+    }
+
+    private SftpEndpoint(String host, int port, String userName, String password, String privateKey,
+                         String passphrase) {
+        this.host = Objects.requireNonNull(host, "host");
+        this.port = port;
+        this.userName = Objects.requireNonNull(userName, "userName");
+        this.password = Objects.isNull(password) ? "" : password;
+        this.privateKey = privateKey;
+        this.passphrase = passphrase;
+    }
+
+    /**
+     * 使用私钥登录
+     *
+     * @param privateKey 私钥文件路径
+     * @param passphrase 私钥密码，没有时为null
+     */
+    public static SftpEndpoint ofPrivateKey(String host, int port, String userName, String privateKey,
+                                            String passphrase) {
+        return new SftpEndpoint(host, port, userName, null, Objects.requireNonNull(privateKey, "privateKey"),
+                passphrase);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SftpEndpoint)) {
+            return false;
+        }
+        SftpEndpoint that = (SftpEndpoint) o;
+        return port == that.port && host.equals(that.host) && userName.equals(that.userName)
+                && password.equals(that.password) && Objects.equals(privateKey, that.privateKey)
+                && Objects.equals(passphrase, that.passphrase);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, userName, password, privateKey, passphrase);
+    }
+
+    /**
+     * 不包含密码
+     */
+    @Override
+    public String toString() {
+        return userName + "@" + host + ":" + port;
+    }
+
+}
@@ -0,0 +1,233 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * SftpSessionPool连接池参数
+ *
+ * <pre>
+ * SftpPoolConfig config = SftpPoolConfig.builder()
+ *         .maxSessionsPerHost(2)
+ *         .maxChannelsPerSession(4)
+ *         .knownHosts("/home/app/.ssh/known_hosts")
+ *         .build();
+ * SftpSessionPool pool = new SftpSessionPool(config);
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public class SftpPoolConfig {
+
+    private static final SftpPoolConfig DEFAULT = builder().build();
+
+    private final int maxSessionsPerHost;
+
+    private final int maxChannelsPerSession;
+
+    private final long borrowTimeoutMillis;
+
+    private final long validateAfterIdleMillis;
+
+    private final long maxIdleMillis;
+
+    private final long evictionIntervalMillis;
+
+    private final int connectTimeoutMillis;
+
+    private final int soTimeoutMillis;
+
+    private final int serverAliveIntervalMillis;
+
+    private final String knownHosts;
+
+    private final boolean insecureAcceptAnyHostKey;
+
+    private final int bulkRequests;
+
+    private final boolean resetWorkingDirectory;
+
+    private SftpPoolConfig(Builder builder) {
+        this.maxSessionsPerHost = Math.max(1, builder.maxSessionsPerHost);
+        this.maxChannelsPerSession = Math.max(1, builder.maxChannelsPerSession);
+        this.borrowTimeoutMillis = builder.borrowTimeoutMillis;
+        this.validateAfterIdleMillis = builder.validateAfterIdleMillis;
+        this.maxIdleMillis = builder.maxIdleMillis;
+        this.evictionIntervalMillis = builder.evictionIntervalMillis;
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.soTimeoutMillis = builder.soTimeoutMillis;
+        this.serverAliveIntervalMillis = builder.serverAliveIntervalMillis;
+        this.knownHosts = builder.knownHosts;
+        this.insecureAcceptAnyHostKey = builder.insecureAcceptAnyHostKey;
+        this.bulkRequests = Math.max(1, builder.bulkRequests);
+        this.resetWorkingDirectory = builder.resetWorkingDirectory;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 默认参数：每个服务器最多2个会话，每个会话最多4个通道，每个通道64个未确认的读写请求，按~/.ssh/known_hosts校验服务器公钥
+     */
+    public static SftpPoolConfig defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * 每个服务器最多同时借出的通道数
+     */
+    public int getMaxChannelsPerHost() {
+        return maxSessionsPerHost * maxChannelsPerSession;
+    }
+
+    public static class Builder {
+
+        private int maxSessionsPerHost = 2;
+
+        private int maxChannelsPerSession = 4;
+
+        private long borrowTimeoutMillis = 30_000;
+
+        private long validateAfterIdleMillis = 10_000;
+
+        private long maxIdleMillis = 60_000;
+
+        private long evictionIntervalMillis = 30_000;
+
+        private int connectTimeoutMillis = 10_000;
+
+        private int soTimeoutMillis = 60_000;
+
+        private int serverAliveIntervalMillis;
+
+        private String knownHosts = System.getProperty("user.home") + File.separator + ".ssh" + File.separator
+                + "known_hosts";
+
+        private boolean insecureAcceptAnyHostKey;
+
+        private int bulkRequests = 64;
+
+        private boolean resetWorkingDirectory = true;
+
+        /**
+         * 每个服务器最多建立的SSH会话数，默认2
+         */
+        public Builder maxSessionsPerHost(int maxSessionsPerHost) {
+            this.maxSessionsPerHost = maxSessionsPerHost;
+            return this;
+        }
+
+        /**
+         * 每个会话上最多打开的sftp通道数，默认4，不能超过服务器的MaxSessions（OpenSSH默认10）
+         */
+        public Builder maxChannelsPerSession(int maxChannelsPerSession) {
+            this.maxChannelsPerSession = maxChannelsPerSession;
+            return this;
+        }
+
+        /**
+         * 通道数达到上限时借出的最长等待时间，超时抛出IOException，默认30秒
+         */
+        public Builder borrowTimeoutMillis(long borrowTimeoutMillis) {
+            this.borrowTimeoutMillis = borrowTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 空闲超过该时间的通道借出前先stat一次校验，失败时关闭并换一个，默认10秒，0表示每次都校验
+         */
+        public Builder validateAfterIdleMillis(long validateAfterIdleMillis) {
+            this.validateAfterIdleMillis = validateAfterIdleMillis;
+            return this;
+        }
+
+        /**
+         * 空闲超过该时间的通道由后台线程关闭，会话上的通道都关闭后会话也关闭，默认60秒
+         */
+        public Builder maxIdleMillis(long maxIdleMillis) {
+            this.maxIdleMillis = maxIdleMillis;
+            return this;
+        }
+
+        /**
+         * 后台清理空闲通道的间隔，默认30秒
+         */
+        public Builder evictionIntervalMillis(long evictionIntervalMillis) {
+            if (evictionIntervalMillis <= 0) {
+                throw new IllegalArgumentException("invalid eviction interval " + evictionIntervalMillis);
+            }
+            this.evictionIntervalMillis = evictionIntervalMillis;
+            return this;
+        }
+
+        /**
+         * 建立会话、打开通道的超时时间，默认10秒
+         */
+        public Builder connectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 会话socket读取超时时间，默认60秒
+         */
+        public Builder soTimeoutMillis(int soTimeoutMillis) {
+            this.soTimeoutMillis = soTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 发送keepalive的间隔，默认0即不发送，中间有防火墙关闭空闲连接时设置
+         */
+        public Builder serverAliveIntervalMillis(int serverAliveIntervalMillis) {
+            this.serverAliveIntervalMillis = serverAliveIntervalMillis;
+            return this;
+        }
+
+        /**
+         * known_hosts文件路径，默认当前用户的~/.ssh/known_hosts；服务器公钥必须已经在文件中，否则拒绝连接，
+         * 文件不存在时建立会话直接失败
+         */
+        public Builder knownHosts(String knownHosts) {
+            this.knownHosts = Objects.requireNonNull(knownHosts, "knownHosts");
+            return this;
+        }
+
+        /**
+         * 不校验服务器公钥，接受任何服务器，默认false；
+         * 开启后无法发现中间人攻击，账号密码和传输的文件都可能被截获，只应在测试或完全可信的网络中使用
+         */
+        public Builder insecureAcceptAnyHostKey(boolean insecureAcceptAnyHostKey) {
+            this.insecureAcceptAnyHostKey = insecureAcceptAnyHostKey;
+            return this;
+        }
+
+        /**
+         * 每个通道读写时同时发出、未确认的请求数，即请求窗口，默认64（JSch默认16）；
+         * 每个请求最多约32KB，高延迟链路上调大可以提高单个文件的传输速度
+         */
+        public Builder bulkRequests(int bulkRequests) {
+            this.bulkRequests = bulkRequests;
+            return this;
+        }
+
+        /**
+         * 归还时是否切回登录后的初始目录，默认true，使用相对路径时需要开启
+         */
+        public Builder resetWorkingDirectory(boolean resetWorkingDirectory) {
+            this.resetWorkingDirectory = resetWorkingDirectory;
+            return this;
+        }
+
+        public SftpPoolConfig build() {
+            return new SftpPoolConfig(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,488 @@
+package com.jinhx.java.util;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SFTP连接池，按服务器复用已登录的SSH会话和sftp通道
+ *
+ * 建立SSH会话需要密钥交换和认证，耗时远大于传输小文件本身；一个会话上可以同时打开多个sftp通道，
+ * 每个通道各自传输一个文件，多个文件并行传输时只需要少量会话。
+ * 每个服务器最多maxSessionsPerHost个会话，每个会话最多maxChannelsPerSession个通道，
+ * 借出通道时优先使用空闲通道，其次在已有会话上打开新通道，都满时才建立新会话。
+ * 通道在借出期间出现IOException时应调用invalidate()，归还时直接关闭；会话断开后其上的通道都会被关闭。
+ * 服务器公钥按SftpPoolConfig.knownHosts校验，默认~/.ssh/known_hosts，不在其中的服务器拒绝连接。
+ *
+ * <pre>
+ * try (SftpConnection connection = pool.borrow(endpoint)) {
+ *     ChannelSftp channel = connection.getChannel();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+public class SftpSessionPool implements Closeable {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final SftpPoolConfig config;
+
+    private final ConcurrentMap<SftpEndpoint, HostPool> hostPools = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    public SftpSessionPool() {
+        this(SftpPoolConfig.defaults());
+    }
+
+    public SftpSessionPool(SftpPoolConfig config) {
+        this.config = config;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sftp-pool-evictor-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evict, config.getEvictionIntervalMillis(),
+                config.getEvictionIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SftpPoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 借出一个已打开的sftp通道
+     *
+     * @param endpoint 服务器
+     * @return SftpConnection，用完后close()归还
+     * @throws IOException 连接、认证失败或等待超时
+     */
+    public SftpConnection borrow(SftpEndpoint endpoint) throws IOException {
+        ensureOpen();
+        HostPool hostPool = hostPools.computeIfAbsent(endpoint, key -> new HostPool(key, config));
+        hostPool.acquire(config.getBorrowTimeoutMillis());
+        try {
+            PooledChannel pooled;
+            while ((pooled = hostPool.idle.pollFirst()) != null) {
+                if (validate(pooled)) {
+                    return new SftpConnection(this, hostPool, pooled);
+                }
+                destroy(hostPool, pooled);
+            }
+            return new SftpConnection(this, hostPool, open(hostPool));
+        } catch (IOException | RuntimeException e) {
+            hostPool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 借出通道执行操作后归还，连接断开时关闭该通道，文件不存在、没有权限等错误不影响通道
+     *
+     * @param endpoint 服务器
+     * @param callback 操作
+     * @return 操作的返回值
+     */
+    public <T> T execute(SftpEndpoint endpoint, SftpCallback<T> callback) throws IOException {
+        try (SftpConnection connection = borrow(endpoint)) {
+            try {
+                return callback.doWithChannel(connection.getChannel());
+            } catch (SftpException e) {
+                if (isConnectionError(e)) {
+                    connection.invalidate();
+                }
+                throw toIOException(e);
+            } catch (IOException | RuntimeException e) {
+                connection.invalidate();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 空闲通道数
+     */
+    public int getIdleCount(SftpEndpoint endpoint) {
+        HostPool hostPool = hostPools.get(endpoint);
+        return Objects.isNull(hostPool) ? 0 : hostPool.idle.size();
+    }
+
+    /**
+     * 已借出的通道数
+     */
+    public int getBorrowedCount(SftpEndpoint endpoint) {
+        HostPool hostPool = hostPools.get(endpoint);
+        return Objects.isNull(hostPool) ? 0 : config.getMaxChannelsPerHost() - hostPool.permits.availablePermits();
+    }
+
+    /**
+     * 已建立的会话数
+     */
+    public int getSessionCount(SftpEndpoint endpoint) {
+        HostPool hostPool = hostPools.get(endpoint);
+        if (Objects.isNull(hostPool)) {
+            return 0;
+        }
+        synchronized (hostPool) {
+            return hostPool.sessions.size();
+        }
+    }
+
+    /**
+     * 关闭所有空闲通道和没有通道的会话，已借出的通道归还时关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        for (HostPool hostPool : hostPools.values()) {
+            PooledChannel pooled;
+            while ((pooled = hostPool.idle.pollFirst()) != null) {
+                destroy(hostPool, pooled);
+            }
+        }
+    }
+
+    /**
+     * 归还通道，通道损坏、池已关闭、恢复工作目录失败或空闲通道已满时直接关闭
+     */
+    void release(HostPool hostPool, PooledChannel pooled, boolean broken) {
+        try {
+            if (broken || closed || !isConnected(pooled) || !resetWorkingDirectory(pooled)) {
+                destroy(hostPool, pooled);
+                return;
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            if (!hostPool.idle.offerFirst(pooled)) {
+                destroy(hostPool, pooled);
+            }
+        } finally {
+            hostPool.permits.release();
+        }
+    }
+
+    /**
+     * 在已有会话上打开通道，会话都满时建立新会话
+     */
+    private PooledChannel open(HostPool hostPool) throws IOException {
+        PooledSession session = hostPool.reserve(config);
+        if (Objects.isNull(session)) {
+            // 通道数受permits限制，只有空闲通道恰好在并发归还时才会走到这里，关闭一个空闲通道腾出位置
+            PooledChannel evicted = hostPool.idle.pollLast();
+            if (Objects.nonNull(evicted)) {
+                destroy(hostPool, evicted);
+            }
+            session = hostPool.reserve(config);
+            if (Objects.isNull(session)) {
+                throw new IOException("sftp pool exhausted, " + hostPool.endpoint);
+            }
+        }
+        ChannelSftp channel = null;
+        try {
+            session.connect(hostPool.endpoint, config);
+            channel = (ChannelSftp) session.session.openChannel("sftp");
+            channel.connect(config.getConnectTimeoutMillis());
+            channel.setBulkRequests(config.getBulkRequests());
+            String home = config.isResetWorkingDirectory() ? channel.pwd() : null;
+            log.debug("sftp channel opened, {}", hostPool.endpoint);
+            return new PooledChannel(channel, session, home);
+        } catch (JSchException | SftpException | RuntimeException e) {
+            if (Objects.nonNull(channel)) {
+                channel.disconnect();
+            }
+            hostPool.unreserve(session);
+            throw new IOException("sftp open channel failed, " + hostPool.endpoint + ", " + e.getMessage(), e);
+        } catch (IOException e) {
+            hostPool.unreserve(session);
+            throw e;
+        }
+    }
+
+    private boolean validate(PooledChannel pooled) {
+        if (!isConnected(pooled)) {
+            return false;
+        }
+        if (System.currentTimeMillis() - pooled.lastUsed < config.getValidateAfterIdleMillis()) {
+            return true;
+        }
+        try {
+            pooled.channel.stat(".");
+            return true;
+        } catch (SftpException e) {
+            log.debug("sftp channel validate failed", e);
+            return false;
+        }
+    }
+
+    private static boolean isConnected(PooledChannel pooled) {
+        return pooled.channel.isConnected() && pooled.session.session.isConnected();
+    }
+
+    private boolean resetWorkingDirectory(PooledChannel pooled) {
+        if (Objects.isNull(pooled.home)) {
+            return true;
+        }
+        try {
+            pooled.channel.cd(pooled.home);
+            return true;
+        } catch (SftpException e) {
+            log.debug("sftp channel reset working directory failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * 关闭空闲超过maxIdleMillis的通道，最久未使用的在队尾
+     */
+    private void evict() {
+        long expireBefore = System.currentTimeMillis() - config.getMaxIdleMillis();
+        for (HostPool hostPool : hostPools.values()) {
+            Iterator<PooledChannel> iterator = hostPool.idle.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledChannel pooled = iterator.next();
+                if (pooled.lastUsed > expireBefore) {
+                    break;
+                }
+                if (hostPool.idle.removeLastOccurrence(pooled)) {
+                    destroy(hostPool, pooled);
+                }
+            }
+        }
+    }
+
+    private static void destroy(HostPool hostPool, PooledChannel pooled) {
+        pooled.channel.disconnect();
+        hostPool.unreserve(pooled.session);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("sftp pool closed");
+        }
+    }
+
+    static boolean isConnectionError(SftpException e) {
+        return e.id == ChannelSftp.SSH_FX_NO_CONNECTION || e.id == ChannelSftp.SSH_FX_CONNECTION_LOST
+                || e.getCause() instanceof IOException;
+    }
+
+    /**
+     * 文件不存在时转换为FileNotFoundException，其他转换为IOException
+     */
+    static IOException toIOException(SftpException e) {
+        if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+            FileNotFoundException exception = new FileNotFoundException("sftp file not found, " + e.getMessage());
+            exception.initCause(e);
+            return exception;
+        }
+        return new IOException("sftp failed, " + e.id + ", " + e.getMessage(), e);
+    }
+
+    /**
+     * 使用借出的ChannelSftp执行操作
+     */
+    @FunctionalInterface
+    public interface SftpCallback<T> {
+
+        T doWithChannel(ChannelSftp channel) throws IOException, SftpException;
+
+    }
+
+    /**
+     * 单个服务器的会话和通道，sessions和每个会话的通道数由this同步
+     */
+    static final class HostPool {
+
+        private final SftpEndpoint endpoint;
+
+        private final Semaphore permits;
+
+        private final LinkedBlockingDeque<PooledChannel> idle;
+
+        private final List<PooledSession> sessions = new ArrayList<>();
+
+        HostPool(SftpEndpoint endpoint, SftpPoolConfig config) {
+            this.endpoint = endpoint;
+            this.permits = new Semaphore(config.getMaxChannelsPerHost(), true);
+            this.idle = new LinkedBlockingDeque<>(config.getMaxChannelsPerHost());
+        }
+
+        SftpEndpoint getEndpoint() {
+            return endpoint;
+        }
+
+        void acquire(long timeoutMillis) throws IOException {
+            try {
+                if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("sftp pool exhausted, " + endpoint);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("sftp borrow interrupted", e);
+            }
+        }
+
+        /**
+         * 占用一个通道位置，优先使用通道最多、未满的会话，让空闲会话尽快被关闭；没有时新增一个未连接的会话
+         *
+         * @return 会话都满时返回null
+         */
+        synchronized PooledSession reserve(SftpPoolConfig config) {
+            PooledSession best = null;
+            for (PooledSession session : sessions) {
+                if (Objects.nonNull(session.session) && !session.session.isConnected()) {
+                    session.broken = true;
+                }
+                if (!session.broken && session.channels < config.getMaxChannelsPerSession()
+                        && (Objects.isNull(best) || session.channels > best.channels)) {
+                    best = session;
+                }
+            }
+            if (Objects.isNull(best)) {
+                if (sessions.size() >= config.getMaxSessionsPerHost()) {
+                    return null;
+                }
+                best = new PooledSession();
+                sessions.add(best);
+            }
+            best.channels++;
+            return best;
+        }
+
+        /**
+         * 释放一个通道位置，会话上没有通道时关闭会话
+         */
+        void unreserve(PooledSession session) {
+            boolean disconnect;
+            synchronized (this) {
+                session.channels--;
+                if (Objects.nonNull(session.session) && !session.session.isConnected()) {
+                    session.broken = true;
+                }
+                disconnect = session.channels <= 0;
+                if (disconnect) {
+                    sessions.remove(session);
+                }
+            }
+            if (disconnect) {
+                session.disconnect();
+            }
+        }
+
+    }
+
+    /**
+     * 池中的会话，channels为已打开和正在打开的通道数
+     */
+    static final class PooledSession {
+
+        private volatile Session session;
+
+        private int channels;
+
+        private boolean broken;
+
+        /**
+         * 第一个使用该会话的线程负责连接，其他线程等待连接完成
+         */
+        synchronized void connect(SftpEndpoint endpoint, SftpPoolConfig config) throws IOException {
+            if (broken) {
+                throw new IOException("sftp session broken, " + endpoint);
+            }
+            if (Objects.nonNull(session)) {
+                if (session.isConnected()) {
+                    return;
+                }
+                broken = true;
+                throw new IOException("sftp session disconnected, " + endpoint);
+            }
+            try {
+                JSch jsch = new JSch();
+                if (!config.isInsecureAcceptAnyHostKey()) {
+                    if (!new File(config.getKnownHosts()).isFile()) {
+                        broken = true;
+                        throw new IOException("sftp known_hosts not found, " + config.getKnownHosts() + ", " + endpoint);
+                    }
+                    jsch.setKnownHosts(config.getKnownHosts());
+                }
+                if (Objects.nonNull(endpoint.getPrivateKey())) {
+                    jsch.addIdentity(endpoint.getPrivateKey(), endpoint.getPassphrase());
+                }
+                Session created = jsch.getSession(endpoint.getUserName(), endpoint.getHost(), endpoint.getPort());
+                if (!endpoint.getPassword().isEmpty()) {
+                    created.setPassword(endpoint.getPassword());
+                }
+                created.setConfig("StrictHostKeyChecking", config.isInsecureAcceptAnyHostKey() ? "no" : "yes");
+                created.setTimeout(config.getSoTimeoutMillis());
+                if (config.getServerAliveIntervalMillis() > 0) {
+                    created.setServerAliveInterval(config.getServerAliveIntervalMillis());
+                }
+                created.connect(config.getConnectTimeoutMillis());
+                session = created;
+                log.debug("sftp session created, {}", endpoint);
+            } catch (JSchException e) {
+                broken = true;
+                throw new IOException("sftp connect failed, " + endpoint + ", " + e.getMessage(), e);
+            }
+        }
+
+        synchronized void disconnect() {
+            if (Objects.nonNull(session)) {
+                session.disconnect();
+            }
+        }
+
+    }
+
+    /**
+     * 池中的通道，home为打开后的初始目录
+     */
+    static final class PooledChannel {
+
+        private final ChannelSftp channel;
+
+        private final PooledSession session;
+
+        private final String home;
+
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledChannel(ChannelSftp channel, PooledSession session, String home) {
+            this.channel = channel;
+            this.session = session;
+            this.home = home;
+        }
+
+        ChannelSftp getChannel() {
+            return channel;
+        }
+
+    }
+
+}
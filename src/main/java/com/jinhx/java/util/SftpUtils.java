@@ -0,0 +1,358 @@
+package com.jinhx.java.util;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * sftp上传下载工具类，方法与FtpUtils对应
+ *
+ * 上传下载通过共享的SftpSessionPool复用已登录的SSH会话和sftp通道，连接池参数可以通过setPool()替换。
+ * 默认连接池按~/.ssh/known_hosts校验服务器公钥，服务器公钥需要预先加入，或通过setPool()指定其他known_hosts文件。
+ * 连接池是线程安全的，多个线程同时传输时各自借出一个通道，少量会话上同时打开多个通道并行传输；
+ * 单个文件的读写由JSch流水线发送，同时未确认的请求数由SftpPoolConfig.bulkRequests控制。
+ * 大文件下载断点续传，或用downloadRange()分段并行下载；需要遍历大目录时使用listFiles()逐个处理。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+public class SftpUtils {
+
+    /**
+     * 本地文件和sftp流之间复制数据的缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private static volatile SftpSessionPool pool;
+
+    /**
+     * 共享的连接池，第一次使用时按默认参数创建
+     */
+    public static SftpSessionPool getPool() {
+        SftpSessionPool current = pool;
+        if (Objects.isNull(current)) {
+            synchronized (SftpUtils.class) {
+                current = pool;
+                if (Objects.isNull(current)) {
+                    current = new SftpSessionPool(SftpPoolConfig.defaults());
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 替换共享的连接池，原来的连接池被关闭
+     */
+    public static void setPool(SftpSessionPool sftpSessionPool) {
+        SftpSessionPool previous;
+        synchronized (SftpUtils.class) {
+            previous = pool;
+            pool = Objects.requireNonNull(sftpSessionPool, "sftpSessionPool");
+        }
+        if (Objects.nonNull(previous) && previous != sftpSessionPool) {
+            previous.close();
+        }
+    }
+
+    /**
+     * 向SFTP服务器上传文件，参数与FtpUtils.uploadFile()一致
+     *
+     * @param host     SFTP服务器hostname
+     * @param port     SFTP服务器端口
+     * @param userName 登录账号
+     * @param password 登录密码
+     * @param basePath 服务器基础目录
+     * @param filePath 服务器文件存放路径，文件的路径为basePath+filePath，目录不存在时逐级创建
+     * @param filename 上传到服务器上的文件名
+     * @param input    本地要上传的文件的输入流，上传后关闭
+     * @return 是否上传成功
+     */
+    public static boolean uploadFile(String host, int port, String userName, String password, String basePath,
+                                     String filePath, String filename, InputStream input) throws Exception {
+        SftpEndpoint endpoint = new SftpEndpoint(host, port, userName, password);
+        try (InputStream in = input) {
+            getPool().execute(endpoint, channel -> {
+                changeOrMakeDirectory(channel, basePath + filePath);
+                channel.put(in, filename);
+                return null;
+            });
+            return true;
+        } catch (IOException e) {
+            log.error("上传文件失败，{}，{}{}/{}", endpoint, basePath, filePath, filename, e);
+            return false;
+        }
+    }
+
+    /**
+     * 从SFTP服务器下载文件，参数与FtpUtils.downloadFile()一致
+     *
+     * @param host       SFTP服务器hostname
+     * @param port       SFTP服务器端口
+     * @param userName   登录账号
+     * @param password   登录密码
+     * @param remotePath 服务器上的目录
+     * @param fileName   要下载的文件名
+     * @param localPath  下载后保存到本地的路径
+     * @return 是否下载成功，文件不存在时返回false
+     */
+    public static boolean downloadFile(String host, int port, String userName, String password, String remotePath,
+                                       String fileName, String localPath) throws Exception {
+        SftpEndpoint endpoint = new SftpEndpoint(host, port, userName, password);
+        try {
+            downloadFile(endpoint, remotePath + "/" + fileName, new File(localPath, fileName), false);
+            return true;
+        } catch (FileNotFoundException e) {
+            log.warn("SFTP服务器文件不存在，{}，{}/{}", endpoint, remotePath, fileName);
+            return false;
+        } catch (IOException e) {
+            log.error("下载文件失败，{}，{}/{}", endpoint, remotePath, fileName, e);
+            return false;
+        }
+    }
+
+    /**
+     * 下载文件，先写入同目录下的.part文件，完成并校验大小后替换localFile
+     *
+     * @param endpoint   服务器
+     * @param remotePath 服务器上的文件路径
+     * @param localFile  本地文件，目录不存在时创建
+     * @param resume     是否断点续传，true时从已有.part文件的长度继续
+     * @return 本次传输的字节数
+     */
+    public static long downloadFile(SftpEndpoint endpoint, String remotePath, File localFile, boolean resume)
+            throws IOException {
+        return getPool().execute(endpoint, channel -> {
+            SftpATTRS attrs = statIfExists(channel, remotePath);
+            if (Objects.isNull(attrs) || attrs.isDir()) {
+                throw new FileNotFoundException("sftp file not found, " + remotePath);
+            }
+            long remoteSize = attrs.getSize();
+            Path target = localFile.getAbsoluteFile().toPath();
+            Files.createDirectories(target.getParent());
+            Path part = target.resolveSibling(target.getFileName() + ".part");
+            long transferred = 0;
+            try (FileChannel fileChannel = FileChannel.open(part, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                long offset = resume ? fileChannel.size() : 0;
+                if (offset > remoteSize) {
+                    // 服务器上的文件比.part文件还短，说明已经被替换，重新下载
+                    offset = 0;
+                }
+                fileChannel.truncate(offset);
+                if (offset < remoteSize) {
+                    if (offset > 0) {
+                        log.info("sftp断点续传下载，{}，从{}字节继续", remotePath, offset);
+                    }
+                    try (InputStream in = channel.get(remotePath, null, offset)) {
+                        transferred = FtpResumableTransfer.copy(in, fileChannel, offset, Long.MAX_VALUE, BUFFER_SIZE);
+                    }
+                }
+            }
+            long size = Files.size(part);
+            if (size != remoteSize) {
+                Files.deleteIfExists(part);
+                throw new IOException("sftp size mismatch, " + remotePath + ", local " + size + ", remote "
+                        + remoteSize);
+            }
+            FtpUtils.replace(part, target);
+            return transferred;
+        });
+    }
+
+    /**
+     * 上传文件，先写入服务器同目录下的.part文件，完成并校验大小后重命名为目标文件，目录不存在时逐级创建
+     *
+     * @param endpoint   服务器
+     * @param localFile  本地文件
+     * @param remotePath 服务器上的文件路径
+     * @param resume     是否断点续传，true时服务器上已有.part文件且不比本地文件长时从其长度继续，不会在已有的目标文件后追加
+     * @return 本次传输的字节数
+     */
+    public static long uploadFile(SftpEndpoint endpoint, File localFile, String remotePath, boolean resume)
+            throws IOException {
+        if (!localFile.isFile()) {
+            throw new FileNotFoundException(localFile.getPath());
+        }
+        long localSize = localFile.length();
+        int index = remotePath.lastIndexOf('/');
+        String directory = index < 0 ? "" : (index == 0 ? "/" : remotePath.substring(0, index));
+        String name = remotePath.substring(index + 1);
+        String part = name + ".part";
+        return getPool().execute(endpoint, channel -> {
+            if (!directory.isEmpty()) {
+                changeOrMakeDirectory(channel, directory);
+            }
+            long offset = 0;
+            if (resume) {
+                SftpATTRS remote = statIfExists(channel, part);
+                if (Objects.nonNull(remote) && !remote.isDir() && remote.getSize() <= localSize) {
+                    offset = remote.getSize();
+                }
+            }
+            if (offset > 0) {
+                log.info("sftp断点续传上传，{}，从{}字节继续", remotePath, offset);
+            }
+            channel.put(localFile.getPath(), part, offset > 0 ? ChannelSftp.RESUME : ChannelSftp.OVERWRITE);
+            long remoteSize = channel.stat(part).getSize();
+            if (remoteSize != localSize) {
+                // 内容已经不一致，不能再续传
+                channel.rm(part);
+                throw new IOException("sftp size mismatch, " + remotePath + ", local " + localSize + ", remote "
+                        + remoteSize);
+            }
+            rename(channel, part, name);
+            return localSize - offset;
+        });
+    }
+
+    /**
+     * 分段下载，把服务器文件的[offset, offset + length)写入本地文件的相同位置，
+     * 多个线程各自下载一段写入同一个本地文件即可并行下载大文件，每段使用一个通道
+     *
+     * @param endpoint   服务器
+     * @param remotePath 服务器上的文件路径
+     * @param offset     开始位置
+     * @param length     长度，超出文件末尾时抛出EOFException
+     * @param localFile  本地文件，不存在时创建，不会被截断
+     * @return 传输的字节数
+     */
+    public static long downloadRange(SftpEndpoint endpoint, String remotePath, long offset, long length,
+                                     File localFile) throws IOException {
+        if (offset < 0 || length <= 0) {
+            throw new IllegalArgumentException("invalid range " + offset + "+" + length);
+        }
+        return getPool().execute(endpoint, channel -> {
+            try (FileChannel fileChannel = FileChannel.open(localFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+                 InputStream in = channel.get(remotePath, null, offset)) {
+                long copied = FtpResumableTransfer.copy(in, fileChannel, offset, length, BUFFER_SIZE);
+                if (copied < length) {
+                    throw new EOFException("sftp range beyond end of file, " + remotePath + ", " + offset + "+"
+                            + length);
+                }
+                return copied;
+            }
+        });
+    }
+
+    /**
+     * 逐个列出目录中的文件，不包括.和..
+     *
+     * ls(path)把整个目录读入Vector，文件很多时占用大量内存；这里每读到一批就交给handler，不保留已处理的条目。
+     *
+     * @param endpoint   服务器
+     * @param remotePath 服务器上的目录
+     * @param handler    每个文件的处理
+     * @return 文件数
+     */
+    public static long listFiles(SftpEndpoint endpoint, String remotePath, EntryHandler handler) throws IOException {
+        return getPool().execute(endpoint, channel -> {
+            long[] count = new long[1];
+            IOException[] error = new IOException[1];
+            channel.ls(remotePath, entry -> {
+                String name = entry.getFilename();
+                if (".".equals(name) || "..".equals(name)) {
+                    return ChannelSftp.LsEntrySelector.CONTINUE;
+                }
+                try {
+                    handler.handle(entry);
+                } catch (IOException e) {
+                    error[0] = e;
+                    return ChannelSftp.LsEntrySelector.BREAK;
+                }
+                count[0]++;
+                return ChannelSftp.LsEntrySelector.CONTINUE;
+            });
+            if (Objects.nonNull(error[0])) {
+                throw error[0];
+            }
+            return count[0];
+        });
+    }
+
+    /**
+     * 切换到目录，不存在时逐级创建，path以/开头时从根目录开始，否则从当前目录开始
+     */
+    static void changeOrMakeDirectory(ChannelSftp channel, String path) throws SftpException {
+        try {
+            channel.cd(path);
+            return;
+        } catch (SftpException e) {
+            if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                throw e;
+            }
+        }
+        if (path.startsWith("/")) {
+            channel.cd("/");
+        }
+        for (String dir : path.split("/")) {
+            if (dir.isEmpty()) {
+                continue;
+            }
+            if (Objects.isNull(statIfExists(channel, dir))) {
+                try {
+                    channel.mkdir(dir);
+                } catch (SftpException e) {
+                    // 多个通道同时创建同一个目录时mkdir可能失败，以能否切换过去为准
+                    log.debug("sftp mkdir failed, {}, {}", dir, e.getMessage());
+                }
+            }
+            channel.cd(dir);
+        }
+    }
+
+    /**
+     * 重命名，sftp协议第3版目标文件已存在时rename失败，删除目标文件后再试一次
+     */
+    private static void rename(ChannelSftp channel, String from, String to) throws SftpException {
+        try {
+            channel.rename(from, to);
+        } catch (SftpException e) {
+            if (Objects.isNull(statIfExists(channel, to))) {
+                throw e;
+            }
+            channel.rm(to);
+            channel.rename(from, to);
+        }
+    }
+
+    /**
+     * 文件不存在时返回null
+     */
+    private static SftpATTRS statIfExists(ChannelSftp channel, String path) throws SftpException {
+        try {
+            return channel.stat(path);
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * listFiles()的条目处理
+     */
+    @FunctionalInterface
+    public interface EntryHandler {
+
+        void handle(ChannelSftp.LsEntry entry) throws IOException;
+
+    }
+
+}
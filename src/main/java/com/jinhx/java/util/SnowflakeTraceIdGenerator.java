@@ -0,0 +1,103 @@
+package com.jinhx.java.util;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 雪花算法traceId，按时间递增，适合需要按traceId排序或范围查询日志的场景
+ *
+ * 64位 = 1位符号位 + 41位毫秒时间戳（从2020-01-01开始，约69年） + 10位机器号 + 12位序列号，
+ * 输出为16位定长十六进制。时间戳和序列号放在同一个AtomicLong中CAS更新，不加锁；
+ * 同一毫秒内序列号用完时借用下一毫秒，时钟回拨时继续使用上次的时间戳，保证单机内不重复且递增。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class SnowflakeTraceIdGenerator implements TraceIdGenerator {
+
+    /**
+     * 2020-01-01 00:00:00 UTC
+     */
+    private static final long EPOCH = 1577836800000L;
+
+    private static final int WORKER_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /**
+     * 默认实例，机器号由主机名和进程号计算
+     */
+    static final SnowflakeTraceIdGenerator DEFAULT = new SnowflakeTraceIdGenerator(defaultWorkerId());
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[16]);
+
+    private final long workerId;
+
+    /**
+     * 高位为相对EPOCH的毫秒数，低SEQUENCE_BITS位为序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param workerId 机器号，0~1023，多实例部署时应保证不同
+     */
+    public SnowflakeTraceIdGenerator(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId must be between 0 and " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+    }
+
+    @Override
+    public String generate() {
+        char[] buf = BUFFER.get();
+        TraceIdMode.writeHex(nextId(), buf, 0);
+        return new String(buf, 0, 16);
+    }
+
+    @Override
+    public void appendTo(StringBuilder sb) {
+        TraceIdMode.appendHex(nextId(), sb);
+    }
+
+    /**
+     * 生成下一个id
+     *
+     * @return long
+     */
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH;
+        while (true) {
+            long current = state.get();
+            long lastTime = current >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTime) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // 同一毫秒、时钟回拨或序列号用完时在上次的基础上加一，溢出的序列号自然进位到时间戳
+                next = current + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                long time = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (time << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    private static long defaultWorkerId() {
+        String name;
+        try {
+            name = InetAddress.getLocalHost().getHostName() + "/" + ManagementFactory.getRuntimeMXBean().getName();
+        } catch (Exception e) {
+            name = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return (name.hashCode() & Integer.MAX_VALUE) % (MAX_WORKER_ID + 1);
+    }
+
+}
@@ -1,54 +1,213 @@
 package com.jinhx.java.util;
 
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
 import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.ClassUtils;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 
 /**
  * ThreadMdcUtils
  *
+ * 提交任务时通过snapshot()获取调用线程的MDC快照，执行时在子线程中恢复，执行完恢复子线程原来的MDC。
+ * 使用logback时快照直接共享logback内部的写时复制map，不做任何复制，提交大量任务时开销不随任务数增长。
+ *
  * @author jinhx
  * @since 2021-08-06
  */
 public class ThreadMdcUtils {
 
+    private static final boolean LOGBACK_PRESENT = ClassUtils.isPresent("ch.qos.logback.classic.util.LogbackMDCAdapter",
+            ThreadMdcUtils.class.getClassLoader());
+
     public static void setTraceIdIfAbsent() {
         if (MDC.get(TraceIdUtils.TRACE_ID) == null) {
             MDC.put(TraceIdUtils.TRACE_ID, TraceIdUtils.getTraceId());
         }
     }
 
+    /**
+     * 获取当前线程MDC的只读快照，不能修改返回的map
+     * logback的MDC在被读取后，下一次put/remove会先复制出新的map再修改，所以这里返回的map之后不会再变化，可以在多个任务之间共享
+     *
+     * @return Map<String, String>，MDC为空时返回null
+     */
+    public static Map<String, String> snapshot() {
+        if (LOGBACK_PRESENT) {
+            Map<String, String> map = LogbackSnapshot.snapshot();
+            if (Objects.nonNull(map)) {
+                return map.isEmpty() ? null : Collections.unmodifiableMap(map);
+            }
+        }
+        return MDC.getCopyOfContextMap();
+    }
+
     public static <T> Callable<T> wrap(final Callable<T> callable, final Map<String, String> context) {
         return () -> {
-            if (context == null) {
-                MDC.clear();
-            } else {
-                MDC.setContextMap(context);
-            }
-            setTraceIdIfAbsent();
+            Map<String, String> previous = apply(context);
             try {
                 return callable.call();
             } finally {
-                MDC.clear();
+                restore(previous);
             }
         };
     }
 
     public static Runnable wrap(final Runnable runnable, final Map<String, String> context) {
         return () -> {
-            if (context == null) {
-                MDC.clear();
-            } else {
-                MDC.setContextMap(context);
-            }
-            setTraceIdIfAbsent();
+            Map<String, String> previous = apply(context);
             try {
                 runnable.run();
             } finally {
-                MDC.clear();
+                restore(previous);
             }
         };
     }
 
-}
\ No newline at end of file
+    public static <T> Supplier<T> wrap(final Supplier<T> supplier, final Map<String, String> context) {
+        return () -> {
+            Map<String, String> previous = apply(context);
+            try {
+                return supplier.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装线程池，提交的任务自动带上提交线程的MDC，也适用于ForkJoinPool的execute/submit/invokeAll
+     *
+     * @param executorService executorService
+     * @return ExecutorService
+     */
+    public static ExecutorService wrap(ExecutorService executorService) {
+        if (executorService instanceof MdcExecutorService) {
+            return executorService;
+        }
+        return new MdcExecutorService(executorService);
+    }
+
+    /**
+     * 包装定时线程池，周期任务每次执行都使用调度时的MDC
+     *
+     * @param scheduledExecutorService scheduledExecutorService
+     * @return ScheduledExecutorService
+     */
+    public static ScheduledExecutorService wrap(ScheduledExecutorService scheduledExecutorService) {
+        if (scheduledExecutorService instanceof MdcScheduledExecutorService) {
+            return scheduledExecutorService;
+        }
+        return new MdcScheduledExecutorService(scheduledExecutorService);
+    }
+
+    /**
+     * 包装spring的TaskExecutor，ThreadPoolTaskExecutor也可以直接设置taskDecorator()
+     *
+     * @param taskExecutor taskExecutor
+     * @return TaskExecutor
+     */
+    public static TaskExecutor wrap(TaskExecutor taskExecutor) {
+        return task -> taskExecutor.execute(wrap(task, snapshot()));
+    }
+
+    /**
+     * spring线程池的任务装饰器，用法：threadPoolTaskExecutor.setTaskDecorator(ThreadMdcUtils.taskDecorator())
+     *
+     * @return TaskDecorator
+     */
+    public static TaskDecorator taskDecorator() {
+        return runnable -> wrap(runnable, snapshot());
+    }
+
+    /**
+     * 带MDC的CompletableFuture.supplyAsync
+     *
+     * @param supplier supplier
+     * @param executor executor
+     * @return CompletableFuture<T>
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(wrap(supplier, snapshot()), executor);
+    }
+
+    /**
+     * 带MDC的CompletableFuture.supplyAsync，使用ForkJoinPool.commonPool()
+     *
+     * @param supplier supplier
+     * @return CompletableFuture<T>
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return supplyAsync(supplier, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 带MDC的CompletableFuture.runAsync
+     *
+     * @param runnable runnable
+     * @param executor executor
+     * @return CompletableFuture<Void>
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+        return CompletableFuture.runAsync(wrap(runnable, snapshot()), executor);
+    }
+
+    /**
+     * 带MDC的CompletableFuture.runAsync，使用ForkJoinPool.commonPool()
+     *
+     * @param runnable runnable
+     * @return CompletableFuture<Void>
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable) {
+        return runAsync(runnable, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 设置MDC并返回原来的MDC
+     */
+    private static Map<String, String> apply(Map<String, String> context) {
+        Map<String, String> previous = snapshot();
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+        setTraceIdIfAbsent();
+        return previous;
+    }
+
+    private static void restore(Map<String, String> previous) {
+        if (previous == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(previous);
+        }
+    }
+
+    /**
+     * 单独放在内部类中，没有logback时不会加载logback的类
+     */
+    private static class LogbackSnapshot {
+
+        static Map<String, String> snapshot() {
+            if (MDC.getMDCAdapter() instanceof LogbackMDCAdapter) {
+                Map<String, String> map = ((LogbackMDCAdapter) MDC.getMDCAdapter()).getPropertyMap();
+                return Objects.isNull(map) ? Collections.emptyMap() : map;
+            }
+            return null;
+        }
+
+    }
+
+}
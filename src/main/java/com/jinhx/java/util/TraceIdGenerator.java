@@ -0,0 +1,27 @@
+package com.jinhx.java.util;
+
+/**
+ * traceId生成器，通过TraceIdUtils.setGenerator()替换，内置实现见TraceIdMode
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public interface TraceIdGenerator {
+
+    /**
+     * 生成traceId
+     *
+     * @return String
+     */
+    String generate();
+
+    /**
+     * 生成traceId并追加到sb，调用方可以复用同一个StringBuilder，避免创建String
+     *
+     * @param sb sb
+     */
+    default void appendTo(StringBuilder sb) {
+        sb.append(generate());
+    }
+
+}
@@ -1,6 +1,6 @@
 package com.jinhx.java.util;
 
-import cn.hutool.core.util.IdUtil;
+import java.util.Objects;
 
 /**
  * TraceIdUtils
@@ -15,8 +15,35 @@ public class TraceIdUtils {
      */
     public static final String TRACE_ID = "traceId";
 
+    /**
+     * 默认使用W3C格式，32位十六进制，与原来的UUID方式长度和字符集相同
+     */
+    private static volatile TraceIdGenerator generator = TraceIdMode.W3C;
+
     public static String getTraceId() {
-        return IdUtil.simpleUUID();
+        return generator.generate();
+    }
+
+    /**
+     * 生成traceId并追加到sb
+     *
+     * @param sb sb
+     */
+    public static void appendTraceId(StringBuilder sb) {
+        generator.appendTo(sb);
+    }
+
+    /**
+     * 替换traceId生成器，例如TraceIdUtils.setGenerator(TraceIdMode.SNOWFLAKE)
+     *
+     * @param traceIdGenerator traceIdGenerator
+     */
+    public static void setGenerator(TraceIdGenerator traceIdGenerator) {
+        generator = Objects.requireNonNull(traceIdGenerator, "traceIdGenerator");
+    }
+
+    public static TraceIdGenerator getGenerator() {
+        return generator;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.zip.ZipEntry;
+
+/**
+ * zip条目的元数据，ZipArchiveWriter写入和ZipArchiveReader读取时使用
+ *
+ * crc、size、compressedSize未知时为-1，写入时使用数据描述符（data descriptor）在数据之后补写。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+@ToString
+public class ZipArchiveEntry {
+
+    /**
+     * 条目名称，目录以/结尾
+     */
+    private final String name;
+
+    /**
+     * 压缩方式，ZipEntry.STORED或ZipEntry.DEFLATED
+     */
+    private final int method;
+
+    /**
+     * 最后修改时间，毫秒
+     */
+    private final long lastModified;
+
+    private long crc = -1;
+
+    /**
+     * 原始大小
+     */
+    private long size = -1;
+
+    /**
+     * 压缩后大小
+     */
+    private long compressedSize = -1;
+
+    /**
+     * 本地文件头在压缩包中的偏移量
+     */
+    private long localHeaderOffset = -1;
+
+    /**
+     * 写入时大小未知，crc和大小写在数据之后的数据描述符中
+     */
+    private boolean dataDescriptor;
+
+    public ZipArchiveEntry(String name, int method, long lastModified) {
+        if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) {
+            throw new IllegalArgumentException("unsupported compression method " + method);
+        }
+        this.name = name;
+        this.method = method;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * 目录条目
+     *
+     * @param name         名称，没有以/结尾时自动补上
+     * @param lastModified 最后修改时间
+     * @return ZipArchiveEntry
+     */
+    public static ZipArchiveEntry directory(String name, long lastModified) {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name.endsWith("/") ? name : name + "/", ZipEntry.STORED, lastModified);
+        entry.setSizes(0, 0, 0);
+        return entry;
+    }
+
+    /**
+     * 大小和crc已知的条目，数据之前的本地文件头中直接写入
+     *
+     * @param name           名称
+     * @param method         压缩方式
+     * @param lastModified   最后修改时间
+     * @param crc            原始数据的crc32
+     * @param size           原始大小
+     * @param compressedSize 压缩后大小，STORED时等于size
+     * @return ZipArchiveEntry
+     */
+    public static ZipArchiveEntry of(String name, int method, long lastModified, long crc, long size, long compressedSize) {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name, method, lastModified);
+        entry.setSizes(crc, size, compressedSize);
+        return entry;
+    }
+
+    public boolean isDirectory() {
+        return name.endsWith("/");
+    }
+
+    /**
+     * crc和大小是否已知
+     */
+    boolean hasSizes() {
+        return crc >= 0 && size >= 0 && compressedSize >= 0;
+    }
+
+    void setSizes(long crc, long size, long compressedSize) {
+        this.crc = crc;
+        this.size = size;
+        this.compressedSize = compressedSize;
+    }
+
+    void setLocalHeaderOffset(long localHeaderOffset) {
+        this.localHeaderOffset = localHeaderOffset;
+    }
+
+    void setDataDescriptor(boolean dataDescriptor) {
+        this.dataDescriptor = dataDescriptor;
+    }
+
+}
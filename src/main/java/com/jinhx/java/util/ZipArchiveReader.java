@@ -0,0 +1,534 @@
+package com.jinhx.java.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * zip格式读取器，按中央目录随机读取单个条目
+ *
+ * 打开时只解析文件末尾的中央目录，不读取条目数据。不超过2GB的压缩包整体映射到内存（mmap），
+ * 读取条目时直接从映射区解压，不经过内核到用户态的额外复制；更大的压缩包按偏移量读取FileChannel。
+ * 支持Zip64，条目读完时校验crc和大小。
+ * getInputStream()可以在多个线程中同时调用，返回的输入流本身不是线程安全的。
+ * 映射区在close()之后由GC回收，Windows下回收之前不能删除该文件。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class ZipArchiveReader implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    private static final int CENTRAL_HEADER_SIZE = 46;
+
+    private static final int END_SIZE = 22;
+
+    private static final int ZIP64_END_SIZE = 56;
+
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    /**
+     * 通用标志位：加密
+     */
+    private static final int FLAG_ENCRYPTED = 1;
+
+    private static final int FLAG_DATA_DESCRIPTOR = 1 << 3;
+
+    private static final int FLAG_UTF8 = 1 << 11;
+
+    private final File file;
+
+    private final FileChannel channel;
+
+    private final long length;
+
+    /**
+     * 整个文件的只读映射，超过2GB时为null
+     */
+    private final ByteBuffer mapped;
+
+    private final List<ZipArchiveEntry> entries;
+
+    private final Map<String, ZipArchiveEntry> entryMap;
+
+    public ZipArchiveReader(File file) throws IOException {
+        this(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param file    压缩包
+     * @param charset 没有设置UTF-8标志的文件名使用的编码
+     */
+    public ZipArchiveReader(File file, Charset charset) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            this.length = channel.size();
+            this.mapped = length <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, length) : null;
+            this.entries = readCentralDirectory(charset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.entryMap = new HashMap<>(entries.size() * 4 / 3 + 1);
+        for (ZipArchiveEntry entry : entries) {
+            entryMap.putIfAbsent(entry.getName(), entry);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 按中央目录顺序返回所有条目
+     */
+    public List<ZipArchiveEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * 按名称查找条目，名称重复时返回第一个
+     *
+     * @param name 名称，目录以/结尾
+     * @return 不存在时返回null
+     */
+    public ZipArchiveEntry getEntry(String name) {
+        return entryMap.get(name);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 打开条目的输入流，返回解压后的数据，读到末尾时校验crc和大小
+     *
+     * @param entry 本压缩包中的条目
+     * @return InputStream，用完需要关闭以归还缓冲区
+     */
+    public InputStream getInputStream(ZipArchiveEntry entry) throws IOException {
+        ensureOpen();
+        return new EntryInputStream(entry, dataOffset(entry));
+    }
+
+    /**
+     * 读取条目的全部数据，适合小文件
+     *
+     * @param entry 本压缩包中的条目
+     * @return 解压后的数据
+     */
+    public byte[] readAllBytes(ZipArchiveEntry entry) throws IOException {
+        if (entry.getSize() > Integer.MAX_VALUE - 8) {
+            throw new ZipException("entry too large to read into memory: " + entry.getName());
+        }
+        byte[] bytes = new byte[(int) entry.getSize()];
+        try (InputStream in = getInputStream(entry)) {
+            int off = 0;
+            while (off < bytes.length) {
+                int len = in.read(bytes, off, bytes.length - off);
+                if (len < 0) {
+                    throw new EOFException("unexpected end of zip entry: " + entry.getName());
+                }
+                off += len;
+            }
+            // 再读一次触发crc和大小校验
+            if (in.read() != -1) {
+                throw new ZipException("invalid entry size: " + entry.getName());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 把条目压缩后的数据原样写入writer的当前条目，不解压，输出为文件时通过transferTo()复制
+     *
+     * @param entry  本压缩包中的条目
+     * @param writer 已经通过putEntry()开始了crc和大小相同的条目
+     */
+    void copyRaw(ZipArchiveEntry entry, ZipArchiveWriter writer) throws IOException {
+        ensureOpen();
+        writer.transferFrom(channel, dataOffset(entry), entry.getCompressedSize());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<ZipArchiveEntry> readCentralDirectory(Charset charset) throws IOException {
+        int tailSize = (int) Math.min(length, END_SIZE + MAX_COMMENT_LENGTH);
+        if (tailSize < END_SIZE) {
+            throw new ZipException("zip END header not found");
+        }
+        ByteBuffer tail = read(length - tailSize, tailSize);
+        int end = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE && i + END_SIZE + unsignedShort(tail, i + 20) <= tailSize) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new ZipException("zip END header not found");
+        }
+        long endOffset = length - tailSize + end;
+        long count = unsignedShort(tail, end + 10);
+        long centralSize = unsignedInt(tail, end + 12);
+        long centralOffset = unsignedInt(tail, end + 16);
+
+        if ((count == ZipArchiveWriter.ZIP64_MAGIC_COUNT || centralSize == ZipArchiveWriter.ZIP64_MAGIC
+                || centralOffset == ZipArchiveWriter.ZIP64_MAGIC) && endOffset >= ZIP64_LOCATOR_SIZE) {
+            ByteBuffer locator = read(endOffset - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+            if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+                ByteBuffer zip64End = read(locator.getLong(8), ZIP64_END_SIZE);
+                if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+                    throw new ZipException("invalid zip64 END header");
+                }
+                count = zip64End.getLong(32);
+                centralSize = zip64End.getLong(40);
+                centralOffset = zip64End.getLong(48);
+            }
+        }
+        if (centralSize > Integer.MAX_VALUE || centralOffset + centralSize > endOffset
+                || count > centralSize / CENTRAL_HEADER_SIZE) {
+            throw new ZipException("invalid central directory");
+        }
+
+        ByteBuffer central = read(centralOffset, (int) centralSize);
+        List<ZipArchiveEntry> result = new ArrayList<>((int) count);
+        int position = 0;
+        for (long i = 0; i < count; i++) {
+            if (position + CENTRAL_HEADER_SIZE > central.limit() || central.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("invalid central directory header");
+            }
+            int flags = unsignedShort(central, position + 8);
+            int method = unsignedShort(central, position + 10);
+            long dosTime = unsignedInt(central, position + 12);
+            long crc = unsignedInt(central, position + 16);
+            long compressedSize = unsignedInt(central, position + 20);
+            long size = unsignedInt(central, position + 24);
+            int nameLength = unsignedShort(central, position + 28);
+            int extraLength = unsignedShort(central, position + 30);
+            int commentLength = unsignedShort(central, position + 32);
+            long localHeaderOffset = unsignedInt(central, position + 42);
+            int next = position + CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+            if (next > central.limit()) {
+                throw new ZipException("invalid central directory header");
+            }
+
+            byte[] nameBytes = new byte[nameLength];
+            central.position(position + CENTRAL_HEADER_SIZE);
+            central.get(nameBytes);
+            String name = new String(nameBytes, (flags & FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : charset);
+
+            // Zip64扩展字段只包含头部中为0xFFFFFFFF的值，顺序固定
+            int extra = position + CENTRAL_HEADER_SIZE + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = unsignedShort(central, extra);
+                int dataLength = unsignedShort(central, extra + 2);
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = extra + 4;
+                    int fieldEnd = Math.min(field + dataLength, extraEnd);
+                    if (size == ZipArchiveWriter.ZIP64_MAGIC && field + 8 <= fieldEnd) {
+                        size = central.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == ZipArchiveWriter.ZIP64_MAGIC && field + 8 <= fieldEnd) {
+                        compressedSize = central.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == ZipArchiveWriter.ZIP64_MAGIC && field + 8 <= fieldEnd) {
+                        localHeaderOffset = central.getLong(field);
+                    }
+                    break;
+                }
+                extra += 4 + dataLength;
+            }
+
+            if ((flags & FLAG_ENCRYPTED) != 0) {
+                throw new ZipException("encrypted entry is not supported: " + name);
+            }
+            if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) {
+                throw new ZipException("unsupported compression method " + method + ": " + name);
+            }
+            if (size < 0 || compressedSize < 0 || localHeaderOffset < 0 || localHeaderOffset >= centralOffset) {
+                throw new ZipException("invalid central directory header: " + name);
+            }
+            ZipArchiveEntry entry = ZipArchiveEntry.of(name, method, fromDosTime(dosTime), crc, size, compressedSize);
+            entry.setLocalHeaderOffset(localHeaderOffset);
+            entry.setDataDescriptor((flags & FLAG_DATA_DESCRIPTOR) != 0);
+            result.add(entry);
+            position = next;
+        }
+        return result;
+    }
+
+    /**
+     * 本地文件头中的文件名和扩展字段长度可能与中央目录不同，需要读取本地文件头才能确定数据的位置
+     */
+    private long dataOffset(ZipArchiveEntry entry) throws IOException {
+        ByteBuffer local = read(entry.getLocalHeaderOffset(), LOCAL_HEADER_SIZE);
+        if (local.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("invalid local header: " + entry.getName());
+        }
+        long dataOffset = entry.getLocalHeaderOffset() + LOCAL_HEADER_SIZE
+                + unsignedShort(local, 26) + unsignedShort(local, 28);
+        if (dataOffset + entry.getCompressedSize() > length) {
+            throw new ZipException("invalid entry compressed size: " + entry.getName());
+        }
+        return dataOffset;
+    }
+
+    /**
+     * 读取指定范围，映射时返回映射区的切片，不复制
+     */
+    private ByteBuffer read(long position, int size) throws IOException {
+        if (position < 0 || position + size > length) {
+            throw new ZipException("invalid zip offset " + position);
+        }
+        ByteBuffer buffer;
+        if (Objects.nonNull(mapped)) {
+            buffer = slice(position, size);
+        } else {
+            buffer = ByteBuffer.allocate(size);
+            readFully(buffer, position);
+            buffer.flip();
+        }
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 映射区不会修改position和limit，duplicate()可以在多个线程中同时调用
+     */
+    private ByteBuffer slice(long position, int size) {
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position((int) position);
+        buffer.limit((int) position + size);
+        return buffer.slice();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - start) < 0) {
+                throw new EOFException("unexpected end of zip file");
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!channel.isOpen()) {
+            throw new IOException("zip file closed");
+        }
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int index) {
+        return buffer.getShort(index) & 0xFFFF;
+    }
+
+    private static long unsignedInt(ByteBuffer buffer, int index) {
+        return buffer.getInt(index) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * MS-DOS格式的时间转换为毫秒，无效的时间返回-1
+     */
+    static long fromDosTime(long dosTime) {
+        try {
+            LocalDateTime dateTime = LocalDateTime.of((int) (dosTime >> 25 & 0x7F) + 1980, (int) (dosTime >> 21 & 0x0F),
+                    (int) (dosTime >> 16 & 0x1F), (int) (dosTime >> 11 & 0x1F), (int) (dosTime >> 5 & 0x3F),
+                    (int) (dosTime << 1 & 0x3E));
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 条目数据的输入流，STORED直接读取，DEFLATED使用Inflater解压
+     */
+    private final class EntryInputStream extends InputStream {
+
+        private final ZipArchiveEntry entry;
+
+        /**
+         * 条目压缩数据在映射区中的切片，未映射时为null
+         */
+        private final ByteBuffer data;
+
+        private final Inflater inflater;
+
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * 解压时的输入缓冲区，从缓冲区池获取
+         */
+        private byte[] buffer;
+
+        private final byte[] single = new byte[1];
+
+        private long position;
+
+        private long remaining;
+
+        private long size;
+
+        private boolean eof;
+
+        private boolean closed;
+
+        EntryInputStream(ZipArchiveEntry entry, long dataOffset) {
+            this.entry = entry;
+            this.position = dataOffset;
+            this.remaining = entry.getCompressedSize();
+            this.data = Objects.isNull(mapped) ? null : slice(dataOffset, (int) remaining);
+            if (entry.getMethod() == ZipEntry.DEFLATED) {
+                this.inflater = new Inflater(true);
+                this.buffer = BufferPool.DEFAULT.acquire();
+            } else {
+                this.inflater = null;
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (eof) {
+                return -1;
+            }
+            int n = Objects.isNull(inflater) ? readStored(b, off, len) : readDeflated(b, off, len);
+            if (n < 0) {
+                finish();
+                return -1;
+            }
+            crc.update(b, off, n);
+            size += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            if (eof || closed) {
+                return 0;
+            }
+            return Objects.isNull(inflater) ? (int) Math.min(remaining, Integer.MAX_VALUE) : 1;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release();
+        }
+
+        private int readStored(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            return readRaw(b, off, (int) Math.min(len, remaining));
+        }
+
+        private int readDeflated(byte[] b, int off, int len) throws IOException {
+            try {
+                int n;
+                while ((n = inflater.inflate(b, off, len)) == 0) {
+                    if (inflater.finished() || inflater.needsDictionary()) {
+                        return -1;
+                    }
+                    if (inflater.needsInput()) {
+                        if (remaining == 0) {
+                            throw new EOFException("unexpected end of zip entry: " + entry.getName());
+                        }
+                        int filled = readRaw(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        inflater.setInput(buffer, 0, filled);
+                    }
+                }
+                return n;
+            } catch (DataFormatException e) {
+                throw new ZipException("invalid deflate data: " + entry.getName() + ", " + e.getMessage());
+            }
+        }
+
+        private int readRaw(byte[] b, int off, int len) throws IOException {
+            if (Objects.nonNull(data)) {
+                data.get(b, off, len);
+            } else {
+                readFully(ByteBuffer.wrap(b, off, len), position);
+            }
+            position += len;
+            remaining -= len;
+            return len;
+        }
+
+        private void finish() throws ZipException {
+            eof = true;
+            release();
+            if (size != entry.getSize() || crc.getValue() != entry.getCrc()) {
+                throw new ZipException("invalid entry crc or size: " + entry.getName());
+            }
+        }
+
+        private void release() {
+            if (Objects.nonNull(inflater)) {
+                inflater.end();
+            }
+            if (Objects.nonNull(buffer)) {
+                BufferPool.DEFAULT.release(buffer);
+                buffer = null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,616 @@
+package com.jinhx.java.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * zip格式写入器
+ *
+ * 与ZipOutputStream的区别是可以直接写入已经压缩好的数据：crc和大小已知时本地文件头中直接写入，
+ * 数据由调用方按原样写入，因此可以在其他线程中压缩、从其他压缩包中原样复制。
+ * 大小未知时使用数据描述符，见putDeflatedEntry()。
+ * 从文件原样复制的数据使用transferFrom()，输出为文件时通过FileChannel.transferTo()复制，不经过用户态。
+ * 文件名使用UTF-8并设置通用标志位11，条目数、大小或偏移量超出范围时自动使用Zip64扩展。
+ * 不是线程安全的。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+public class ZipArchiveWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    /**
+     * 通用标志位：使用数据描述符
+     */
+    private static final int FLAG_DATA_DESCRIPTOR = 1 << 3;
+
+    /**
+     * 通用标志位：文件名为UTF-8
+     */
+    private static final int FLAG_UTF8 = 1 << 11;
+
+    private static final int VERSION_DEFAULT = 20;
+
+    private static final int VERSION_ZIP64 = 45;
+
+    /**
+     * 创建系统为unix，外部属性中保存文件权限
+     */
+    private static final int VERSION_MADE_BY = 3 << 8 | VERSION_ZIP64;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CountingOutputStream out;
+
+    /**
+     * 底层输出流对应的通道，FileOutputStream或WritableByteChannel时不为null
+     */
+    private final WritableByteChannel target;
+
+    private final List<ZipArchiveEntry> entries = new ArrayList<>();
+
+    private final Set<String> names = new HashSet<>();
+
+    /**
+     * 写入头部的临时缓冲区
+     */
+    private final HeaderBuffer header = new HeaderBuffer();
+
+    private ZipArchiveEntry current;
+
+    private long currentDataStart;
+
+    private boolean finished;
+
+    public ZipArchiveWriter(OutputStream out) {
+        this.out = new CountingOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        if (out instanceof FileOutputStream) {
+            this.target = ((FileOutputStream) out).getChannel();
+        } else if (out instanceof WritableByteChannel) {
+            this.target = (WritableByteChannel) out;
+        } else {
+            this.target = null;
+        }
+    }
+
+    /**
+     * 开始一个条目，之后通过write()写入数据（已按method压缩），最后调用closeEntry()
+     * crc和大小未知时只支持DEFLATED，数据之后写入数据描述符，此时应使用closeEntry(crc, size)
+     *
+     * @param entry entry
+     * @throws IOException 名称重复或写入失败
+     */
+    public void putEntry(ZipArchiveEntry entry) throws IOException {
+        ensureOpen();
+        if (Objects.nonNull(current)) {
+            closeEntry();
+        }
+        if (!entry.hasSizes() && entry.getMethod() != ZipEntry.DEFLATED) {
+            throw new ZipException("STORED entry requires crc and size: " + entry.getName());
+        }
+        if (!names.add(entry.getName())) {
+            throw new ZipException("duplicate entry: " + entry.getName());
+        }
+        entry.setLocalHeaderOffset(out.getCount());
+        entry.setDataDescriptor(!entry.hasSizes());
+        writeLocalHeader(entry);
+        current = entry;
+        currentDataStart = out.getCount();
+    }
+
+    /**
+     * 开始一个大小未知的DEFLATED条目，返回的输出流接收原始数据，边写入边压缩，close()时结束该条目，不会关闭压缩包
+     *
+     * @param name         名称
+     * @param lastModified 最后修改时间
+     * @param level        压缩级别，0~9，-1为默认级别
+     * @return OutputStream
+     * @throws IOException 名称重复或写入失败
+     */
+    public OutputStream putDeflatedEntry(String name, long lastModified, int level) throws IOException {
+        putEntry(new ZipArchiveEntry(name, ZipEntry.DEFLATED, lastModified));
+        return new DeflatingEntryStream(level);
+    }
+
+    /**
+     * 写入当前条目的数据（已压缩）
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureEntry();
+        out.write(b, off, len);
+    }
+
+    /**
+     * 从文件中原样复制当前条目的数据（已压缩或STORED）
+     * 输出为FileOutputStream或WritableByteChannel时先刷新缓冲区再调用FileChannel.transferTo()，
+     * Linux下为sendfile，数据不复制到用户态；否则使用池中的缓冲区复制
+     *
+     * @param channel  源文件
+     * @param position 起始位置
+     * @param count    字节数
+     * @throws IOException 文件长度不足或写入失败
+     */
+    public void transferFrom(FileChannel channel, long position, long count) throws IOException {
+        ensureEntry();
+        if (Objects.nonNull(target)) {
+            out.flush();
+            long transferred = 0;
+            while (transferred < count) {
+                long n = channel.transferTo(position + transferred, count - transferred, target);
+                if (n <= 0 && position + transferred >= channel.size()) {
+                    throw new EOFException("unexpected end of file, entry: " + current.getName());
+                }
+                transferred += n;
+            }
+            out.skip(count);
+            return;
+        }
+        byte[] buffer = BufferPool.DEFAULT.acquire();
+        try {
+            long transferred = 0;
+            while (transferred < count) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, count - transferred));
+                int n = channel.read(byteBuffer, position + transferred);
+                if (n < 0) {
+                    throw new EOFException("unexpected end of file, entry: " + current.getName());
+                }
+                out.write(buffer, 0, n);
+                transferred += n;
+            }
+        } finally {
+            BufferPool.DEFAULT.release(buffer);
+        }
+    }
+
+    /**
+     * 当前条目已写入的数据字节数
+     */
+    public long getEntryBytesWritten() {
+        return Objects.isNull(current) ? 0 : out.getCount() - currentDataStart;
+    }
+
+    /**
+     * 结束crc和大小已知的条目，校验写入的数据长度
+     */
+    public void closeEntry() throws IOException {
+        ensureEntry();
+        ZipArchiveEntry entry = current;
+        if (!entry.hasSizes()) {
+            throw new ZipException("crc and size are required to close entry: " + entry.getName());
+        }
+        long written = out.getCount() - currentDataStart;
+        if (written != entry.getCompressedSize()) {
+            throw new ZipException("invalid entry compressed size (expected " + entry.getCompressedSize()
+                    + " but got " + written + " bytes): " + entry.getName());
+        }
+        entries.add(entry);
+        current = null;
+    }
+
+    /**
+     * 结束大小未知的条目，写入数据描述符
+     *
+     * @param crc  原始数据的crc32
+     * @param size 原始大小
+     */
+    public void closeEntry(long crc, long size) throws IOException {
+        ensureEntry();
+        ZipArchiveEntry entry = current;
+        if (entry.hasSizes()) {
+            closeEntry();
+            return;
+        }
+        long compressedSize = out.getCount() - currentDataStart;
+        entry.setSizes(crc, size, compressedSize);
+        header.reset();
+        header.putInt(DATA_DESCRIPTOR_SIGNATURE);
+        header.putInt(crc);
+        if (size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC) {
+            header.putLong(compressedSize);
+            header.putLong(size);
+        } else {
+            header.putInt(compressedSize);
+            header.putInt(size);
+        }
+        header.writeTo(out);
+        entries.add(entry);
+        current = null;
+    }
+
+    /**
+     * 已写入压缩包的字节数
+     */
+    public long getBytesWritten() {
+        return out.getCount();
+    }
+
+    /**
+     * 写入中央目录，完成压缩包，不关闭输出流
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (Objects.nonNull(current)) {
+            throw new ZipException("entry not closed: " + current.getName());
+        }
+        long centralOffset = out.getCount();
+        for (ZipArchiveEntry entry : entries) {
+            writeCentralHeader(entry);
+        }
+        long centralSize = out.getCount() - centralOffset;
+        writeEnd(centralOffset, centralSize);
+        out.flush();
+        finished = true;
+    }
+
+    /**
+     * 完成压缩包并关闭输出流
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 刷新缓冲区，之后可以绕过writer直接写入底层输出流
+     */
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeLocalHeader(ZipArchiveEntry entry) throws IOException {
+        byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+        boolean zip64 = entry.hasSizes() && (entry.getSize() >= ZIP64_MAGIC || entry.getCompressedSize() >= ZIP64_MAGIC);
+        header.reset();
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        header.putShort(flags(entry));
+        header.putShort(entry.getMethod());
+        header.putInt(toDosTime(entry.getLastModified()));
+        if (!entry.hasSizes()) {
+            header.putInt(0);
+            header.putInt(0);
+            header.putInt(0);
+        } else {
+            header.putInt(entry.getCrc());
+            header.putInt(zip64 ? ZIP64_MAGIC : entry.getCompressedSize());
+            header.putInt(zip64 ? ZIP64_MAGIC : entry.getSize());
+        }
+        header.putShort(name.length);
+        header.putShort(zip64 ? 20 : 0);
+        header.put(name);
+        if (zip64) {
+            header.putShort(ZIP64_EXTRA_ID);
+            header.putShort(16);
+            header.putLong(entry.getSize());
+            header.putLong(entry.getCompressedSize());
+        }
+        header.writeTo(out);
+    }
+
+    private void writeCentralHeader(ZipArchiveEntry entry) throws IOException {
+        byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+        boolean size64 = entry.getSize() >= ZIP64_MAGIC;
+        boolean compressedSize64 = entry.getCompressedSize() >= ZIP64_MAGIC;
+        boolean offset64 = entry.getLocalHeaderOffset() >= ZIP64_MAGIC;
+        int extraLength = (size64 ? 8 : 0) + (compressedSize64 ? 8 : 0) + (offset64 ? 8 : 0);
+        header.reset();
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort(VERSION_MADE_BY);
+        header.putShort(extraLength > 0 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        header.putShort(flags(entry));
+        header.putShort(entry.getMethod());
+        header.putInt(toDosTime(entry.getLastModified()));
+        header.putInt(entry.getCrc());
+        header.putInt(compressedSize64 ? ZIP64_MAGIC : entry.getCompressedSize());
+        header.putInt(size64 ? ZIP64_MAGIC : entry.getSize());
+        header.putShort(name.length);
+        header.putShort(extraLength > 0 ? extraLength + 4 : 0);
+        // 注释长度、起始磁盘号、内部属性
+        header.putShort(0);
+        header.putShort(0);
+        header.putShort(0);
+        // 外部属性：高16位为unix权限，目录同时设置MS-DOS目录标志
+        header.putInt(entry.isDirectory() ? (040755L << 16) | 0x10 : 0100644L << 16);
+        header.putInt(offset64 ? ZIP64_MAGIC : entry.getLocalHeaderOffset());
+        header.put(name);
+        if (extraLength > 0) {
+            header.putShort(ZIP64_EXTRA_ID);
+            header.putShort(extraLength);
+            if (size64) {
+                header.putLong(entry.getSize());
+            }
+            if (compressedSize64) {
+                header.putLong(entry.getCompressedSize());
+            }
+            if (offset64) {
+                header.putLong(entry.getLocalHeaderOffset());
+            }
+        }
+        header.writeTo(out);
+    }
+
+    private void writeEnd(long centralOffset, long centralSize) throws IOException {
+        int count = entries.size();
+        header.reset();
+        if (count >= ZIP64_MAGIC_COUNT || centralOffset >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+            long zip64EndOffset = out.getCount();
+            header.putInt(ZIP64_END_SIGNATURE);
+            header.putLong(44);
+            header.putShort(VERSION_MADE_BY);
+            header.putShort(VERSION_ZIP64);
+            header.putInt(0);
+            header.putInt(0);
+            header.putLong(count);
+            header.putLong(count);
+            header.putLong(centralSize);
+            header.putLong(centralOffset);
+
+            header.putInt(ZIP64_LOCATOR_SIGNATURE);
+            header.putInt(0);
+            header.putLong(zip64EndOffset);
+            header.putInt(1);
+        }
+        header.putInt(END_SIGNATURE);
+        header.putShort(0);
+        header.putShort(0);
+        header.putShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        header.putShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        header.putInt(Math.min(centralSize, ZIP64_MAGIC));
+        header.putInt(Math.min(centralOffset, ZIP64_MAGIC));
+        header.putShort(0);
+        header.writeTo(out);
+    }
+
+    private static int flags(ZipArchiveEntry entry) {
+        return entry.isDataDescriptor() ? FLAG_UTF8 | FLAG_DATA_DESCRIPTOR : FLAG_UTF8;
+    }
+
+    /**
+     * 转换为MS-DOS格式的时间，精度2秒，1980年之前按1980-01-01
+     */
+    static long toDosTime(long time) {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        int year = dateTime.getYear();
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        if (year > 2107) {
+            year = 2107;
+        }
+        return ((long) (year - 1980) << 25 | dateTime.getMonthValue() << 21 | dateTime.getDayOfMonth() << 16
+                | dateTime.getHour() << 11 | dateTime.getMinute() << 5 | dateTime.getSecond() >> 1) & ZIP64_MAGIC;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("zip archive already finished");
+        }
+    }
+
+    private void ensureEntry() throws IOException {
+        ensureOpen();
+        if (Objects.isNull(current)) {
+            throw new ZipException("no current entry");
+        }
+    }
+
+    /**
+     * 边写入边压缩当前条目
+     */
+    private class DeflatingEntryStream extends OutputStream {
+
+        private final Deflater deflater;
+
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * 从缓冲区池获取，close()时归还
+         */
+        private byte[] buffer = BufferPool.DEFAULT.acquire();
+
+        private long size;
+
+        private boolean closed;
+
+        DeflatingEntryStream(int level) {
+            this.deflater = new Deflater(level, true);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("entry stream closed");
+            }
+            if (len == 0) {
+                return;
+            }
+            crc.update(b, off, len);
+            size += len;
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                drain();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    drain();
+                }
+                closeEntry(crc.getValue(), size);
+            } finally {
+                deflater.end();
+                BufferPool.DEFAULT.release(buffer);
+                buffer = null;
+            }
+        }
+
+        private void drain() throws IOException {
+            int length = deflater.deflate(buffer, 0, buffer.length);
+            if (length > 0) {
+                out.write(buffer, 0, length);
+            }
+        }
+
+    }
+
+    /**
+     * 记录写入字节数
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        /**
+         * 记录绕过本输出流直接写入底层通道的字节数
+         */
+        void skip(long n) {
+            count += n;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+    }
+
+    /**
+     * 小端序头部缓冲区
+     */
+    private static class HeaderBuffer {
+
+        private byte[] buf = new byte[512];
+
+        private int position;
+
+        void reset() {
+            position = 0;
+        }
+
+        void putShort(int value) {
+            ensureCapacity(2);
+            buf[position++] = (byte) value;
+            buf[position++] = (byte) (value >>> 8);
+        }
+
+        void putInt(long value) {
+            ensureCapacity(4);
+            buf[position++] = (byte) value;
+            buf[position++] = (byte) (value >>> 8);
+            buf[position++] = (byte) (value >>> 16);
+            buf[position++] = (byte) (value >>> 24);
+        }
+
+        void putLong(long value) {
+            putInt(value);
+            putInt(value >>> 32);
+        }
+
+        void put(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, position);
+        }
+
+        private void ensureCapacity(int length) {
+            if (position + length > buf.length) {
+                byte[] newBuf = new byte[Math.max(buf.length * 2, position + length)];
+                System.arraycopy(buf, 0, newBuf, 0, position);
+                buf = newBuf;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,632 @@
+package com.jinhx.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * ZipUtils的压缩实现
+ *
+ * 顺序模式在调用线程中逐个压缩，边读边写，内存占用固定。
+ * 并行模式把每个文件提交到线程池独立压缩（各自的Deflater），调用线程按原顺序把压缩结果写入压缩包，
+ * 已压缩未写入的条目数不超过maxInFlight，压缩结果超过spillThreshold时写入临时文件。
+ * 直接存储的文件在压缩阶段只计算crc，写入时再通过FileChannel.transferTo()从原文件复制；压缩后不比原文件小的条目也改为直接存储。
+ * 扩展名未知的较大文件抽样计算信息熵，接近随机数据（已压缩、加密）时不再压缩，省去一次无效的deflate。
+ * 读写缓冲区从BufferPool获取，计算crc和抽样使用直接内存缓冲区。
+ * 增量压缩时先通过Reuse查找上一次压缩包中内容相同的条目，找到时原样复制压缩后的数据，不再读取和压缩原文件。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+final class ZipCompressor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 小于该大小的文件不抽样，直接压缩的代价不高，样本太少时信息熵也偏低
+     */
+    private static final long SAMPLE_MIN_FILE_SIZE = 64 * 1024;
+
+    private static final int SAMPLE_COUNT = 4;
+
+    private static final int SAMPLE_SIZE = 4 * 1024;
+
+    /**
+     * 每字节比特数，随机数据接近8，文本一般在5以下，deflate压缩后的数据在7.9以上
+     */
+    private static final double INCOMPRESSIBLE_ENTROPY = 7.5;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ZipOptions options;
+
+    /**
+     * 可复用条目的查找，非增量压缩时为null
+     */
+    private final Reuse reuse;
+
+    private int entries;
+
+    private int storedEntries;
+
+    private int reusedEntries;
+
+    private long bytesRead;
+
+    ZipCompressor(ZipOptions options) {
+        this(options, null);
+    }
+
+    ZipCompressor(ZipOptions options, Reuse reuse) {
+        this.options = options;
+        this.reuse = reuse;
+    }
+
+    /**
+     * 收集需要压缩的文件，命名规则与原来的递归压缩相同
+     *
+     * @param source 文件或文件夹
+     * @param name   在压缩包中的名称
+     * @param result 结果
+     */
+    static void collect(File source, String name, boolean keepDirStructure, List<Source> result) {
+        if (source.isFile()) {
+            result.add(new Source(name, source));
+            return;
+        }
+        File[] listFiles = source.listFiles();
+        if (Objects.isNull(listFiles) || listFiles.length == 0) {
+            // 需要保留原来的文件结构时,需要对空文件夹进行处理
+            if (keepDirStructure) {
+                result.add(new Source(name + "/", source));
+            }
+            return;
+        }
+        for (File file : listFiles) {
+            collect(file, keepDirStructure ? name + "/" + file.getName() : file.getName(), keepDirStructure, result);
+        }
+    }
+
+    ZipStats compress(List<Source> sources, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        ZipArchiveWriter writer = new ZipArchiveWriter(out);
+        if (options.isParallel() && sources.size() > 1) {
+            compressParallel(sources, writer);
+        } else {
+            for (Source source : sources) {
+                compressSequential(source, writer);
+            }
+        }
+        writer.finish();
+        return new ZipStats(entries, storedEntries, reusedEntries, bytesRead, writer.getBytesWritten(),
+                System.nanoTime() - start);
+    }
+
+    private void compressSequential(Source source, ZipArchiveWriter writer) throws IOException {
+        if (source.isDirectory()) {
+            writeDirectory(source, writer);
+            return;
+        }
+        ZipArchiveEntry previous = findReusable(source);
+        if (Objects.nonNull(previous)) {
+            writeReused(source, previous, writer);
+            return;
+        }
+        if (isStore(source)) {
+            writeStored(source, checksum(source.getFile()), writer);
+            return;
+        }
+        byte[] buffer = BufferPool.DEFAULT.acquire();
+        long size = 0;
+        try (InputStream in = new FileInputStream(source.getFile());
+             OutputStream entryOut = writer.putDeflatedEntry(source.getName(), source.getFile().lastModified(), options.getLevel())) {
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                entryOut.write(buffer, 0, len);
+                size += len;
+            }
+        } finally {
+            BufferPool.DEFAULT.release(buffer);
+        }
+        entries++;
+        bytesRead += size;
+    }
+
+    private void compressParallel(List<Source> sources, ZipArchiveWriter writer) throws IOException {
+        ExecutorService executor = options.getExecutor();
+        boolean shutdown = false;
+        if (Objects.isNull(executor)) {
+            executor = newExecutor(options.getParallelism());
+            shutdown = true;
+        }
+        executor = ThreadMdcUtils.wrap(executor);
+
+        Deque<Future<Compressed>> pending = new ArrayDeque<>();
+        try {
+            for (Source source : sources) {
+                while (pending.size() >= options.getMaxInFlight()) {
+                    write(await(pending.poll()), writer);
+                }
+                pending.add(executor.submit(() -> compressFile(source)));
+                // 顺带写出已经完成的条目，尽早释放内存
+                while (!pending.isEmpty() && pending.peek().isDone()) {
+                    write(await(pending.poll()), writer);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(await(pending.poll()), writer);
+            }
+        } finally {
+            for (Future<Compressed> future : pending) {
+                discard(future);
+            }
+            if (shutdown) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 在工作线程中压缩单个文件
+     */
+    private Compressed compressFile(Source source) throws IOException {
+        if (source.isDirectory()) {
+            return new Compressed(source, ZipEntry.STORED, 0, 0, 0, null);
+        }
+        ZipArchiveEntry previous = findReusable(source);
+        if (Objects.nonNull(previous)) {
+            return new Compressed(source, previous);
+        }
+        if (isStore(source)) {
+            Checksum checksum = checksum(source.getFile());
+            return new Compressed(source, ZipEntry.STORED, checksum.crc, checksum.size, checksum.size, null);
+        }
+
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(options.getLevel(), true);
+        byte[] in = BufferPool.DEFAULT.acquire();
+        byte[] out = BufferPool.DEFAULT.acquire();
+        SpillOutputStream spill = new SpillOutputStream(options.getSpillThreshold(), options.getTempDir());
+        long size = 0;
+        try (InputStream input = new FileInputStream(source.getFile())) {
+            int len;
+            while ((len = input.read(in)) != -1) {
+                crc.update(in, 0, len);
+                size += len;
+                deflater.setInput(in, 0, len);
+                while (!deflater.needsInput()) {
+                    spill.write(out, 0, deflater.deflate(out, 0, out.length));
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                spill.write(out, 0, deflater.deflate(out, 0, out.length));
+            }
+            spill.close();
+        } catch (IOException | RuntimeException e) {
+            spill.discard();
+            throw e;
+        } finally {
+            deflater.end();
+            BufferPool.DEFAULT.release(in);
+            BufferPool.DEFAULT.release(out);
+        }
+
+        if (spill.getCount() >= size && size > 0) {
+            // 压缩后没有变小，直接存储
+            spill.discard();
+            return new Compressed(source, ZipEntry.STORED, crc.getValue(), size, size, null);
+        }
+        return new Compressed(source, ZipEntry.DEFLATED, crc.getValue(), size, spill.getCount(), spill);
+    }
+
+    private void write(Compressed compressed, ZipArchiveWriter writer) throws IOException {
+        Source source = compressed.source;
+        if (source.isDirectory()) {
+            writeDirectory(source, writer);
+            return;
+        }
+        if (Objects.nonNull(compressed.previous)) {
+            writeReused(source, compressed.previous, writer);
+            return;
+        }
+        if (compressed.method == ZipEntry.STORED) {
+            writeStored(source, new Checksum(compressed.crc, compressed.size), writer);
+            return;
+        }
+        try {
+            writer.putEntry(ZipArchiveEntry.of(source.getName(), ZipEntry.DEFLATED, source.getFile().lastModified(),
+                    compressed.crc, compressed.size, compressed.compressedSize));
+            compressed.data.writeTo(writer);
+            writer.closeEntry();
+        } finally {
+            compressed.data.discard();
+        }
+        entries++;
+        bytesRead += compressed.size;
+    }
+
+    private void writeDirectory(Source source, ZipArchiveWriter writer) throws IOException {
+        writer.putEntry(ZipArchiveEntry.directory(source.getName(), source.getFile().lastModified()));
+        writer.closeEntry();
+        entries++;
+    }
+
+    /**
+     * 直接存储，文件在计算crc之后被修改时长度校验失败
+     */
+    private void writeStored(Source source, Checksum checksum, ZipArchiveWriter writer) throws IOException {
+        writer.putEntry(ZipArchiveEntry.of(source.getName(), ZipEntry.STORED, source.getFile().lastModified(),
+                checksum.crc, checksum.size, checksum.size));
+        try (FileChannel channel = FileChannel.open(source.getFile().toPath(), StandardOpenOption.READ)) {
+            writer.transferFrom(channel, 0, checksum.size);
+        }
+        writer.closeEntry();
+        entries++;
+        storedEntries++;
+        bytesRead += checksum.size;
+    }
+
+    private ZipArchiveEntry findReusable(Source source) throws IOException {
+        return Objects.isNull(reuse) ? null : reuse.find(source);
+    }
+
+    /**
+     * 从上一次的压缩包原样复制压缩后的数据，名称和修改时间使用当前文件的
+     */
+    private void writeReused(Source source, ZipArchiveEntry previous, ZipArchiveWriter writer) throws IOException {
+        writer.putEntry(ZipArchiveEntry.of(source.getName(), previous.getMethod(), source.getFile().lastModified(),
+                previous.getCrc(), previous.getSize(), previous.getCompressedSize()));
+        reuse.copyRaw(previous, writer);
+        writer.closeEntry();
+        entries++;
+        reusedEntries++;
+        if (previous.getMethod() == ZipEntry.STORED) {
+            storedEntries++;
+        }
+        bytesRead += previous.getSize();
+    }
+
+    private boolean isStore(Source source) throws IOException {
+        return options.getLevel() == Deflater.NO_COMPRESSION || options.isStoreExtension(source.getName())
+                || (options.isDetectIncompressible() && isIncompressible(source.getFile()));
+    }
+
+    /**
+     * 在文件中均匀抽取SAMPLE_COUNT段计算字节分布的信息熵，达到INCOMPRESSIBLE_ENTROPY时认为不可压缩
+     */
+    static boolean isIncompressible(File file) throws IOException {
+        long length = file.length();
+        if (length < SAMPLE_MIN_FILE_SIZE) {
+            return false;
+        }
+        int[] counts = new int[256];
+        long total = 0;
+        ByteBuffer buffer = BufferPool.DEFAULT.acquireDirect();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long step = (length - SAMPLE_SIZE) / (SAMPLE_COUNT - 1);
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                buffer.clear().limit(SAMPLE_SIZE);
+                long position = i * step;
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) <= 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    counts[buffer.get() & 0xFF]++;
+                }
+                total += buffer.limit();
+            }
+        } finally {
+            BufferPool.DEFAULT.releaseDirect(buffer);
+        }
+        return entropy(counts, total) >= INCOMPRESSIBLE_ENTROPY;
+    }
+
+    /**
+     * 香农熵，每字节比特数，0~8
+     */
+    private static double entropy(int[] counts, long total) {
+        if (total == 0) {
+            return 0;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / total;
+                entropy -= p * Math.log(p);
+            }
+        }
+        return entropy / Math.log(2);
+    }
+
+    /**
+     * 通过FileChannel读取到直接内存缓冲区计算crc，不复制到堆中
+     */
+    private static Checksum checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = BufferPool.DEFAULT.acquireDirect();
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int len;
+            while ((len = channel.read(buffer)) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+                size += len;
+            }
+        } finally {
+            BufferPool.DEFAULT.releaseDirect(buffer);
+        }
+        return new Checksum(crc.getValue(), size);
+    }
+
+    static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("zip interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 取消未写入的条目并删除临时文件
+     */
+    private static void discard(Future<Compressed> future) {
+        if (future.cancel(true)) {
+            return;
+        }
+        try {
+            Compressed compressed = future.get();
+            if (Objects.nonNull(compressed.data)) {
+                compressed.data.discard();
+            }
+        } catch (Exception e) {
+            log.debug("discard compressed entry failed", e);
+        }
+    }
+
+    static ExecutorService newExecutor(int parallelism) {
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "zip-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    /**
+     * 需要压缩的文件或空文件夹
+     */
+    static final class Source {
+
+        private final String name;
+
+        private final File file;
+
+        Source(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+    }
+
+    private static final class Checksum {
+
+        private final long crc;
+
+        private final long size;
+
+        Checksum(long crc, long size) {
+            this.crc = crc;
+            this.size = size;
+        }
+
+    }
+
+    /**
+     * 增量压缩时查找上一次压缩包中可以复用的条目，并行压缩时在多个工作线程中同时调用
+     */
+    interface Reuse {
+
+        /**
+         * @param source 需要压缩的文件
+         * @return 内容相同的条目，没有时返回null
+         */
+        ZipArchiveEntry find(Source source) throws IOException;
+
+        /**
+         * 把find()返回的条目压缩后的数据原样写入当前条目
+         */
+        void copyRaw(ZipArchiveEntry previous, ZipArchiveWriter writer) throws IOException;
+
+    }
+
+    /**
+     * 压缩结果，DEFLATED时data为压缩后的数据，复用时previous为上一次压缩包中的条目
+     */
+    private static final class Compressed {
+
+        private final Source source;
+
+        private final int method;
+
+        private final long crc;
+
+        private final long size;
+
+        private final long compressedSize;
+
+        private final SpillOutputStream data;
+
+        private final ZipArchiveEntry previous;
+
+        Compressed(Source source, int method, long crc, long size, long compressedSize, SpillOutputStream data) {
+            this.source = source;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.data = data;
+            this.previous = null;
+        }
+
+        Compressed(Source source, ZipArchiveEntry previous) {
+            this.source = source;
+            this.method = previous.getMethod();
+            this.crc = previous.getCrc();
+            this.size = previous.getSize();
+            this.compressedSize = previous.getCompressedSize();
+            this.data = null;
+            this.previous = previous;
+        }
+
+    }
+
+    /**
+     * 先写入内存，超过阈值后转为写入临时文件
+     */
+    private static final class SpillOutputStream extends OutputStream {
+
+        private final long threshold;
+
+        private final File tempDir;
+
+        private MemoryOutputStream memory = new MemoryOutputStream();
+
+        private File file;
+
+        private OutputStream fileOut;
+
+        private long count;
+
+        SpillOutputStream(long threshold, File tempDir) {
+            this.threshold = threshold;
+            this.tempDir = tempDir;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            if (Objects.isNull(fileOut) && count + len > threshold) {
+                file = File.createTempFile("zip-", ".tmp", tempDir);
+                fileOut = new FileOutputStream(file);
+                memory.writeTo(fileOut);
+                memory = null;
+            }
+            if (Objects.nonNull(fileOut)) {
+                fileOut.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (Objects.nonNull(fileOut)) {
+                fileOut.close();
+            }
+        }
+
+        void writeTo(ZipArchiveWriter writer) throws IOException {
+            if (Objects.isNull(file)) {
+                writer.write(memory.buffer(), 0, memory.size());
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                writer.transferFrom(channel, 0, count);
+            }
+        }
+
+        void discard() {
+            memory = null;
+            if (Objects.nonNull(file)) {
+                try {
+                    close();
+                } catch (IOException e) {
+                    log.debug("close temp file failed", e);
+                }
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+                file = null;
+            }
+        }
+    }
+
+    /**
+     * 直接读取内部数组，避免toByteArray()复制
+     */
+    private static final class MemoryOutputStream extends ByteArrayOutputStream {
+
+        MemoryOutputStream() {
+            super(BUFFER_SIZE);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+    }
+
+}
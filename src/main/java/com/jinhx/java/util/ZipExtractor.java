@@ -0,0 +1,161 @@
+package com.jinhx.java.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * ZipUtils的解压实现
+ *
+ * 通过ZipArchiveReader按中央目录读取，先在调用线程中创建全部目录，再逐个或并行解压文件，
+ * 并行时每个文件是独立的任务，各自从映射区读取和解压，互不影响。
+ * 条目名称解析后必须位于目标目录之内（zip slip），否则整个解压失败。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+final class ZipExtractor {
+
+    private final ZipOptions options;
+
+    private final AtomicInteger entries = new AtomicInteger();
+
+    private final AtomicInteger storedEntries = new AtomicInteger();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    ZipExtractor(ZipOptions options) {
+        this.options = options;
+    }
+
+    ZipStats extract(File zipFile, File destDir) throws IOException {
+        long start = System.nanoTime();
+        Path root = destDir.toPath().toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        try (ZipArchiveReader reader = new ZipArchiveReader(zipFile, options.getCharset())) {
+            List<ZipArchiveEntry> files = new ArrayList<>(reader.size());
+            List<Path> targets = new ArrayList<>(reader.size());
+            Set<Path> directories = new HashSet<>();
+            directories.add(root);
+            for (ZipArchiveEntry entry : reader.getEntries()) {
+                Path target = resolve(root, entry);
+                if (entry.isDirectory()) {
+                    createDirectories(target, directories);
+                    entries.incrementAndGet();
+                } else {
+                    createDirectories(target.getParent(), directories);
+                    files.add(entry);
+                    targets.add(target);
+                }
+            }
+            if (options.isParallel() && files.size() > 1) {
+                extractParallel(reader, files, targets);
+            } else {
+                for (int i = 0; i < files.size(); i++) {
+                    extractFile(reader, files.get(i), targets.get(i));
+                }
+            }
+        }
+        return new ZipStats(entries.get(), storedEntries.get(), bytesRead.get(), bytesWritten.get(), System.nanoTime() - start);
+    }
+
+    private void extractParallel(ZipArchiveReader reader, List<ZipArchiveEntry> files, List<Path> targets) throws IOException {
+        ExecutorService executor = options.getExecutor();
+        boolean shutdown = false;
+        if (Objects.isNull(executor)) {
+            executor = ZipCompressor.newExecutor(options.getParallelism());
+            shutdown = true;
+        }
+        executor = ThreadMdcUtils.wrap(executor);
+
+        Deque<Future<?>> pending = new ArrayDeque<>();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                while (pending.size() >= options.getMaxInFlight()) {
+                    ZipCompressor.await(pending.poll());
+                }
+                ZipArchiveEntry entry = files.get(i);
+                Path target = targets.get(i);
+                pending.add(executor.submit(() -> {
+                    extractFile(reader, entry, target);
+                    return null;
+                }));
+            }
+            while (!pending.isEmpty()) {
+                ZipCompressor.await(pending.poll());
+            }
+        } finally {
+            for (Future<?> future : pending) {
+                future.cancel(true);
+            }
+            if (shutdown) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 解压单个文件，已存在时覆盖，失败时删除写了一半的文件
+     */
+    private void extractFile(ZipArchiveReader reader, ZipArchiveEntry entry, Path target) throws IOException {
+        byte[] buffer = BufferPool.DEFAULT.acquire();
+        try (InputStream in = reader.getInputStream(entry);
+             OutputStream out = Files.newOutputStream(target)) {
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        } finally {
+            BufferPool.DEFAULT.release(buffer);
+        }
+        if (entry.getLastModified() >= 0) {
+            Files.setLastModifiedTime(target, FileTime.fromMillis(entry.getLastModified()));
+        }
+        entries.incrementAndGet();
+        if (entry.getMethod() == ZipEntry.STORED) {
+            storedEntries.incrementAndGet();
+        }
+        bytesRead.addAndGet(entry.getSize());
+        bytesWritten.addAndGet(entry.getCompressedSize());
+    }
+
+    private static void createDirectories(Path directory, Set<Path> created) throws IOException {
+        if (created.add(directory)) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * 解析条目在目标目录中的路径，..、绝对路径等指向目标目录之外的名称直接拒绝
+     */
+    static Path resolve(Path root, ZipArchiveEntry entry) throws ZipException {
+        Path target = root.resolve(entry.getName()).normalize();
+        if (!target.startsWith(root) || (target.equals(root) && !entry.isDirectory())) {
+            throw new ZipException("entry is outside of the target dir: " + entry.getName());
+        }
+        return target;
+    }
+
+}
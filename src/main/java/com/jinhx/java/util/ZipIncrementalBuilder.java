@@ -0,0 +1,294 @@
+package com.jinhx.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
+
+/**
+ * ZipUtils的增量压缩实现
+ *
+ * 压缩包旁边保存一个清单文件（压缩包路径加.manifest），每个文件一行：大小、修改时间、crc、SHA-256和名称。
+ * 重新压缩时按名称查找清单，大小和修改时间都没变的文件直接认为没有修改，不读取文件；
+ * 否则读取一遍计算crc和SHA-256，清单中有内容相同的文件（包括改名、复制）时也复用。
+ * 复用的条目从上一次的压缩包中原样复制压缩后的数据，不解压、不重新压缩，只压缩新增和修改的文件。
+ * 复制前校验上一次压缩包中条目的大小和crc与清单一致，压缩包或清单损坏时自动退化为全量压缩。
+ * 新的压缩包先写入同目录下的临时文件，完成后替换原文件，再写入新的清单。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+final class ZipIncrementalBuilder implements ZipCompressor.Reuse {
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final String MANIFEST_HEADER = "# ZipUtils manifest v1";
+
+    private final ZipOptions options;
+
+    private final File zipFile;
+
+    private final File manifestFile;
+
+    /**
+     * 上一次的清单，按名称
+     */
+    private Map<String, ManifestRecord> previousRecords = Collections.emptyMap();
+
+    /**
+     * 上一次的清单，按SHA-256
+     */
+    private Map<String, ManifestRecord> previousHashes = Collections.emptyMap();
+
+    private ZipArchiveReader previousZip;
+
+    /**
+     * 本次的清单，并行压缩时在多个线程中写入
+     */
+    private final Map<String, ManifestRecord> records = new ConcurrentHashMap<>();
+
+    ZipIncrementalBuilder(File zipFile, ZipOptions options) {
+        this.options = options;
+        this.zipFile = zipFile.getAbsoluteFile();
+        this.manifestFile = manifestFile(this.zipFile);
+    }
+
+    static File manifestFile(File zipFile) {
+        return new File(zipFile.getPath() + MANIFEST_SUFFIX);
+    }
+
+    ZipStats build(List<ZipCompressor.Source> sources) throws IOException {
+        Path dir = zipFile.getParentFile().toPath();
+        Files.createDirectories(dir);
+        openPrevious();
+        Path tempZip = Files.createTempFile(dir, zipFile.getName(), ".tmp");
+        ZipStats zipStats;
+        try {
+            try (OutputStream out = new FileOutputStream(tempZip.toFile())) {
+                zipStats = new ZipCompressor(options, this).compress(sources, out);
+            } finally {
+                closePrevious();
+            }
+            replace(tempZip, zipFile.toPath());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempZip);
+            throw e;
+        }
+        writeManifest(sources);
+        return zipStats;
+    }
+
+    @Override
+    public ZipArchiveEntry find(ZipCompressor.Source source) throws IOException {
+        File file = source.getFile();
+        long size = file.length();
+        long lastModified = file.lastModified();
+        ManifestRecord record = previousRecords.get(source.getName());
+        if (Objects.nonNull(record) && record.size == size && record.lastModified == lastModified) {
+            ZipArchiveEntry entry = previousEntry(record);
+            if (Objects.nonNull(entry)) {
+                records.put(source.getName(), record);
+                return entry;
+            }
+        }
+
+        ManifestRecord current = hash(source.getName(), file, lastModified);
+        records.put(source.getName(), current);
+        ManifestRecord same = previousHashes.get(current.sha256);
+        return Objects.nonNull(same) && same.size == current.size && same.crc == current.crc ? previousEntry(same) : null;
+    }
+
+    @Override
+    public void copyRaw(ZipArchiveEntry previous, ZipArchiveWriter writer) throws IOException {
+        previousZip.copyRaw(previous, writer);
+    }
+
+    /**
+     * 上一次压缩包中与清单一致的条目，不一致时返回null
+     */
+    private ZipArchiveEntry previousEntry(ManifestRecord record) {
+        if (Objects.isNull(previousZip)) {
+            return null;
+        }
+        ZipArchiveEntry entry = previousZip.getEntry(record.name);
+        if (Objects.isNull(entry) || entry.isDirectory() || entry.getSize() != record.size || entry.getCrc() != record.crc) {
+            return null;
+        }
+        return entry;
+    }
+
+    private void openPrevious() {
+        if (!zipFile.isFile() || !manifestFile.isFile()) {
+            return;
+        }
+        try {
+            Map<String, ManifestRecord> byName = readManifest();
+            Map<String, ManifestRecord> byHash = new HashMap<>(byName.size() * 4 / 3 + 1);
+            for (ManifestRecord record : byName.values()) {
+                byHash.putIfAbsent(record.sha256, record);
+            }
+            previousZip = new ZipArchiveReader(zipFile, options.getCharset());
+            previousRecords = byName;
+            previousHashes = byHash;
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取上一次的压缩包或清单失败，全量压缩，zipFile={}，{}", zipFile, e.toString());
+            closePrevious();
+            previousRecords = Collections.emptyMap();
+            previousHashes = Collections.emptyMap();
+        }
+    }
+
+    private void closePrevious() {
+        if (Objects.nonNull(previousZip)) {
+            try {
+                previousZip.close();
+            } catch (IOException e) {
+                log.debug("close previous zip failed", e);
+            }
+            previousZip = null;
+        }
+    }
+
+    private Map<String, ManifestRecord> readManifest() throws IOException {
+        Map<String, ManifestRecord> result = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            if (!MANIFEST_HEADER.equals(reader.readLine())) {
+                throw new ZipException("invalid manifest header");
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ManifestRecord record = ManifestRecord.parse(line);
+                result.put(record.name, record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按压缩顺序写入清单，同样先写临时文件再替换
+     */
+    private void writeManifest(List<ZipCompressor.Source> sources) throws IOException {
+        Path tempManifest = Files.createTempFile(manifestFile.getParentFile().toPath(), manifestFile.getName(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempManifest, StandardCharsets.UTF_8)) {
+                writer.write(MANIFEST_HEADER);
+                writer.newLine();
+                for (ZipCompressor.Source source : sources) {
+                    ManifestRecord record = records.get(source.getName());
+                    if (Objects.nonNull(record)) {
+                        writer.write(record.format());
+                        writer.newLine();
+                    }
+                }
+            }
+            replace(tempManifest, manifestFile.toPath());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempManifest);
+            throw e;
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 读取一遍文件，同时计算crc和SHA-256
+     */
+    private static ManifestRecord hash(String name, File file, long lastModified) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = BufferPool.DEFAULT.acquireDirect();
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int len;
+            while ((len = channel.read(buffer)) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                size += len;
+            }
+        } finally {
+            BufferPool.DEFAULT.releaseDirect(buffer);
+        }
+        return new ManifestRecord(name, size, lastModified, crc.getValue(), Hex.encodeHexString(digest.digest()));
+    }
+
+    /**
+     * 清单中的一行，名称放在最后，可以包含制表符
+     */
+    private static final class ManifestRecord {
+
+        private final String name;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final long crc;
+
+        private final String sha256;
+
+        ManifestRecord(String name, long size, long lastModified, long crc, String sha256) {
+            this.name = name;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.crc = crc;
+            this.sha256 = sha256;
+        }
+
+        String format() {
+            return size + "\t" + lastModified + "\t" + crc + "\t" + sha256 + "\t" + name;
+        }
+
+        static ManifestRecord parse(String line) throws ZipException {
+            String[] fields = line.split("\t", 5);
+            if (fields.length != 5) {
+                throw new ZipException("invalid manifest line: " + line);
+            }
+            try {
+                return new ManifestRecord(fields[4], Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Long.parseLong(fields[2]), fields[3]);
+            } catch (NumberFormatException e) {
+                throw new ZipException("invalid manifest line: " + line);
+            }
+        }
+
+    }
+
+}
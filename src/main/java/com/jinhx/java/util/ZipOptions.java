@@ -0,0 +1,239 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+
+/**
+ * ZipUtils压缩、解压参数，解压时使用parallelism、executor、maxInFlight和charset
+ *
+ * <pre>
+ * ZipOptions zipOptions = ZipOptions.builder()
+ *         .parallelism(Runtime.getRuntime().availableProcessors())
+ *         .level(Deflater.BEST_SPEED)
+ *         .build();
+ * ZipStats zipStats = ZipUtils.toZip("/data/export", outputStream, zipOptions);
+ * </pre>
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public class ZipOptions {
+
+    /**
+     * 本身已经压缩过的文件类型，默认不再压缩，直接存储
+     */
+    public static final Set<String> DEFAULT_STORE_EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "zst", "lz4", "jar", "war",
+            "docx", "xlsx", "pptx", "apk",
+            "jpg", "jpeg", "png", "gif", "webp", "heic",
+            "mp3", "aac", "ogg", "flac", "mp4", "m4a", "mov", "avi", "mkv", "webm")));
+
+    private static final ZipOptions DEFAULT = builder().build();
+
+    private final int level;
+
+    private final int parallelism;
+
+    private final ExecutorService executor;
+
+    private final int maxInFlight;
+
+    private final Set<String> storeExtensions;
+
+    private final boolean detectIncompressible;
+
+    private final long spillThreshold;
+
+    private final File tempDir;
+
+    private final boolean keepDirStructure;
+
+    private final long flushBytes;
+
+    private final Charset charset;
+
+    private ZipOptions(Builder builder) {
+        this.level = builder.level;
+        this.parallelism = Math.max(1, builder.parallelism);
+        this.executor = builder.executor;
+        this.maxInFlight = builder.maxInFlight > 0 ? builder.maxInFlight : parallelism * 2;
+        this.storeExtensions = builder.storeExtensions;
+        this.detectIncompressible = builder.detectIncompressible;
+        this.spillThreshold = builder.spillThreshold;
+        this.tempDir = builder.tempDir;
+        this.keepDirStructure = builder.keepDirStructure;
+        this.flushBytes = builder.flushBytes;
+        this.charset = builder.charset;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 默认参数：单线程，默认压缩级别，保留目录结构，已压缩的文件类型和抽样检测为不可压缩的文件直接存储
+     */
+    public static ZipOptions defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * 是否并行压缩
+     */
+    public boolean isParallel() {
+        return parallelism > 1 || executor != null;
+    }
+
+    /**
+     * 根据扩展名判断是否直接存储
+     *
+     * @param fileName 文件名
+     * @return boolean
+     */
+    public boolean isStoreExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && dot < fileName.length() - 1
+                && storeExtensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    public static class Builder {
+
+        private int level = Deflater.DEFAULT_COMPRESSION;
+
+        private int parallelism = 1;
+
+        private ExecutorService executor;
+
+        private int maxInFlight;
+
+        private Set<String> storeExtensions = DEFAULT_STORE_EXTENSIONS;
+
+        private boolean detectIncompressible = true;
+
+        private long spillThreshold = 16 * 1024 * 1024;
+
+        private File tempDir;
+
+        private boolean keepDirStructure = true;
+
+        private long flushBytes = 256 * 1024;
+
+        private Charset charset = StandardCharsets.UTF_8;
+
+        /**
+         * 压缩级别，0~9，-1为默认级别（6），0表示全部直接存储
+         */
+        public Builder level(int level) {
+            if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+                throw new IllegalArgumentException("invalid compression level " + level);
+            }
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * 并行压缩的线程数，默认1即在调用线程中逐个压缩
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * 执行压缩的线程池，不指定时按parallelism临时创建，压缩完成后关闭
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 已压缩但还没写入压缩包的最大条目数，默认parallelism的2倍，限制内存占用
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * 直接存储的文件扩展名（小写，不带.），传入空集合表示全部压缩
+         */
+        public Builder storeExtensions(Collection<String> storeExtensions) {
+            Set<String> extensions = new HashSet<>();
+            for (String extension : storeExtensions) {
+                extensions.add(extension.toLowerCase(Locale.ROOT));
+            }
+            this.storeExtensions = Collections.unmodifiableSet(extensions);
+            return this;
+        }
+
+        /**
+         * 扩展名不在storeExtensions中的较大文件，是否抽样计算内容的信息熵，接近随机数据时直接存储，默认true
+         */
+        public Builder detectIncompressible(boolean detectIncompressible) {
+            this.detectIncompressible = detectIncompressible;
+            return this;
+        }
+
+        /**
+         * 并行压缩时单个条目压缩后超过该大小写入临时文件，不占用内存，默认16MB
+         */
+        public Builder spillThreshold(long spillThreshold) {
+            this.spillThreshold = spillThreshold;
+            return this;
+        }
+
+        /**
+         * 临时文件目录，默认java.io.tmpdir
+         */
+        public Builder tempDir(File tempDir) {
+            this.tempDir = tempDir;
+            return this;
+        }
+
+        /**
+         * 是否保留原来的目录结构，false时所有文件放到压缩包根目录下，空文件夹直接舍弃，同名文件会压缩失败
+         */
+        public Builder keepDirStructure(boolean keepDirStructure) {
+            this.keepDirStructure = keepDirStructure;
+            return this;
+        }
+
+        /**
+         * 流式输出到响应时每写入多少字节刷新一次输出流，默认256KB
+         */
+        public Builder flushBytes(long flushBytes) {
+            if (flushBytes <= 0) {
+                throw new IllegalArgumentException("invalid flush bytes " + flushBytes);
+            }
+            this.flushBytes = flushBytes;
+            return this;
+        }
+
+        /**
+         * 解压时没有设置UTF-8标志的文件名使用的编码，默认UTF-8，Windows自带工具创建的压缩包一般为GBK
+         */
+        public Builder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        public ZipOptions build() {
+            return new ZipOptions(this);
+        }
+
+    }
+
+}
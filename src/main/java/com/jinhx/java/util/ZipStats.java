@@ -0,0 +1,77 @@
+package com.jinhx.java.util;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次压缩或解压的统计
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Getter
+public class ZipStats {
+
+    /**
+     * 条目数，包括目录
+     */
+    private final int entries;
+
+    /**
+     * 直接存储（未压缩）的条目数
+     */
+    private final int storedEntries;
+
+    /**
+     * 增量压缩时从上一次的压缩包原样复制的条目数
+     */
+    private final int reusedEntries;
+
+    /**
+     * 原始数据字节数，压缩时为读取的文件大小，解压时为解压出的文件大小
+     */
+    private final long bytesRead;
+
+    /**
+     * 压缩数据字节数，压缩时为写入的压缩包大小，解压时为各条目压缩数据的大小之和
+     */
+    private final long bytesWritten;
+
+    private final long elapsedNanos;
+
+    public ZipStats(int entries, int storedEntries, long bytesRead, long bytesWritten, long elapsedNanos) {
+        this(entries, storedEntries, 0, bytesRead, bytesWritten, elapsedNanos);
+    }
+
+    public ZipStats(int entries, int storedEntries, int reusedEntries, long bytesRead, long bytesWritten, long elapsedNanos) {
+        this.entries = entries;
+        this.storedEntries = storedEntries;
+        this.reusedEntries = reusedEntries;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 压缩率，压缩后大小/原始大小
+     */
+    public double getRatio() {
+        return bytesRead == 0 ? 1 : (double) bytesWritten / bytesRead;
+    }
+
+    /**
+     * 按原始数据计算的吞吐量，MB/s
+     */
+    public double getThroughputMBps() {
+        return elapsedNanos == 0 ? 0 : bytesRead / 1024.0 / 1024.0 / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("耗时：%ss，条目数：%d（直接存储%d，复用%d），原始大小：%d，压缩后：%d，压缩率：%.2f%%，速度：%.1fMB/s",
+                (double) TimeUnit.NANOSECONDS.toMillis(elapsedNanos) / 1000, entries, storedEntries, reusedEntries,
+                bytesRead, bytesWritten, getRatio() * 100, getThroughputMBps());
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.jinhx.java.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 边压缩边输出到响应的StreamingResponseBody
+ *
+ * 在Spring MVC的异步线程中收集文件并压缩，直接写入servlet输出流，不生成临时压缩包，响应使用chunked编码。
+ * 内存占用与压缩包大小无关：顺序压缩时只有固定的缓冲区，并行压缩时受maxInFlight和spillThreshold限制。
+ * 每写入flushBytes字节刷新一次输出流，客户端能尽快收到数据。
+ * 客户端断开连接时写入失败，停止压缩、取消未完成的并行任务，只打印一条日志，不再向上抛出异常。
+ * 下载时间较长时需要调大spring.mvc.async.request-timeout，否则超时后连接被关闭。
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+@Slf4j
+final class ZipStreamingResponseBody implements StreamingResponseBody {
+
+    private final List<File> srcFiles;
+
+    private final ZipOptions options;
+
+    /**
+     * @param srcFiles 需要压缩的文件或文件夹，文件夹按keepDirStructure递归处理
+     * @param options  压缩参数
+     */
+    ZipStreamingResponseBody(List<File> srcFiles, ZipOptions options) {
+        this.srcFiles = srcFiles;
+        this.options = options;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        List<ZipCompressor.Source> sources = new ArrayList<>();
+        for (File srcFile : srcFiles) {
+            ZipCompressor.collect(srcFile, srcFile.getName(), options.isKeepDirStructure(), sources);
+        }
+        ResponseOutputStream out = new ResponseOutputStream(outputStream, options.getFlushBytes());
+        try {
+            ZipStats zipStats = new ZipCompressor(options).compress(sources, out);
+            out.flush();
+            log.info("流式压缩完成，{}。", zipStats);
+        } catch (IOException e) {
+            if (!out.isAborted()) {
+                throw e;
+            }
+            log.info("客户端断开连接，已停止压缩，已输出{}字节，{}", out.getCount(), e.toString());
+        }
+    }
+
+    /**
+     * 按字节数定期刷新，记录写入响应时是否失败；close()不关闭响应，由容器处理
+     */
+    private static final class ResponseOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        private final long flushBytes;
+
+        private long unflushed;
+
+        private long count;
+
+        private boolean aborted;
+
+        ResponseOutputStream(OutputStream delegate, long flushBytes) {
+            this.delegate = delegate;
+            this.flushBytes = flushBytes;
+        }
+
+        boolean isAborted() {
+            return aborted;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureNotAborted();
+            try {
+                delegate.write(b, off, len);
+            } catch (IOException e) {
+                aborted = true;
+                throw e;
+            }
+            count += len;
+            unflushed += len;
+            if (unflushed >= flushBytes) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureNotAborted();
+            try {
+                delegate.flush();
+            } catch (IOException e) {
+                aborted = true;
+                throw e;
+            }
+            unflushed = 0;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void ensureNotAborted() throws IOException {
+            if (aborted) {
+                throw new IOException("response already aborted");
+            }
+        }
+
+    }
+
+}
@@ -1,16 +1,28 @@
 package com.jinhx.java.util;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.time.StopWatch;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.ZipInputStream;
 
 /**
  *  说明：
@@ -19,6 +31,12 @@ import java.util.zip.ZipOutputStream;
  * （3）碰到空的文件夹，也可以压缩
  * （4）可以选择是否保留原来的目录结构，如果不保留，所有文件跑压缩包根目录去了，且空文件夹直接舍弃。注意：如果不保留文件原来目录结构，在碰到文件名相同的文件时，会压缩失败。
  * （5）代码中提供了2个压缩文件的方法，一个的输入参数为文件夹路径，一个为文件列表，可根据实际需求选择方法。
+ * （6）带ZipOptions参数的方法支持多线程并行压缩、指定压缩级别、已压缩的文件类型和抽样检测为不可压缩的文件直接存储，并返回耗时和吞吐量。
+ *      直接存储的文件在输出流为FileOutputStream时通过FileChannel.transferTo()复制。
+ * （7）解压：unzip()并行解压到目录，readEntry()按名称随机读取单个条目，forEachEntry()边读边处理输入流中的条目，
+ *      需要多次随机读取时直接使用ZipArchiveReader。
+ * （8）下载：toZipResponse()在Controller中直接返回，边压缩边写入响应，不生成临时压缩包。
+ * （9）增量：toZipIncremental()反复生成同一个压缩包时，没有修改的文件从上一次的压缩包原样复制，只压缩新增和修改的文件。
  *  注意：
  * （1）支持选择是否保留原来的文件目录结构，如果不保留，那么空文件夹直接不用处理。
  * （2）碰到空文件夹时，如果需要保留目录结构，则直接添加个ZipEntry就可以了，不过就是这个entry的名字后面需要带上一斜杠（/）表示这个是目录。
@@ -28,8 +46,6 @@ import java.util.zip.ZipOutputStream;
 @Slf4j
 public class ZipUtils {
 
-    private static final int  BUFFER_SIZE = 2 * 1024;
-
     public static void main(String[] args) throws Exception {
         log.info("测试开始!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
         // 1
@@ -52,28 +68,16 @@ public class ZipUtils {
      * @param out    压缩后文件输出流
      * @param KeepDirStructure  是否保留原来的目录结构,true:保留目录结构;
      * 							false:所有文件跑到压缩包根目录下(注意：不保留目录结构可能会出现同名文件,会压缩失败)
+     * 文件不存在时与原来一样按空文件夹处理，不抛出异常；带ZipOptions参数的方法会抛出FileNotFoundException
      */
     public static void toZip(String srcDir, OutputStream out, boolean KeepDirStructure)
             throws Exception{
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        ZipOutputStream zos = null ;
         try {
-            zos = new ZipOutputStream(out);
-            File sourceFile = new File(srcDir);
-            compress(sourceFile, zos, sourceFile.getName(), KeepDirStructure);
-            stopWatch.stop();
-            log.info("压缩完成，耗时：{}。", (double) stopWatch.getTime()/1000 + "s");
+            toZip(new File(srcDir), out, ZipOptions.builder().keepDirStructure(KeepDirStructure).build());
         } catch (Exception e) {
             throw new Exception("压缩失败：" + e);
         }finally{
-            if(zos != null){
-                try {
-                    zos.close();
-                } catch (Exception e) {
-                    log.error("压缩失败：" + e);
-                }
-            }
+            closeQuietly(out);
         }
     }
 
@@ -83,81 +87,242 @@ public class ZipUtils {
      * @param out 	        压缩后文件输出流
      */
     public static void toZip(List<File> srcFiles , OutputStream out)throws Exception {
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        ZipOutputStream zos = null ;
         try {
-            zos = new ZipOutputStream(out);
-            for (File srcFile : srcFiles) {
-                byte[] buf = new byte[BUFFER_SIZE];
-                zos.putNextEntry(new ZipEntry(srcFile.getName()));
-                int len;
-                FileInputStream in = new FileInputStream(srcFile);
-                while ((len = in.read(buf)) != -1){
-                    zos.write(buf, 0, len);
-                }
-                zos.closeEntry();
-                in.close();
-            }
-            stopWatch.stop();
-            log.info("压缩完成，耗时：{}。", (double) stopWatch.getTime()/1000 + "s");
+            toZip(srcFiles, out, ZipOptions.defaults());
         } catch (Exception e) {
             throw new Exception("压缩失败：" + e);
         }finally{
-            if(zos != null){
-                try {
-                    zos.close();
-                } catch (Exception e) {
-                    log.error("压缩失败：" + e);
-                }
-            }
+            closeQuietly(out);
         }
     }
 
     /**
-     * 递归压缩方法
-     * @param sourceFile 源文件
-     * @param zos		 zip输出流
-     * @param name		 压缩后的名称
-     * @param KeepDirStructure  是否保留原来的目录结构,true:保留目录结构;
-     * 							false:所有文件跑到压缩包根目录下(注意：不保留目录结构可能会出现同名文件,会压缩失败)
+     * 按参数压缩文件或文件夹，完成后不关闭输出流
+     * parallelism大于1时并行压缩，按原顺序写入，条目和内容与顺序压缩相同（顺序压缩的条目带数据描述符，字节不完全相同）
+     *
+     * @param srcDir  要压缩文件路径
+     * @param out     压缩后文件输出流
+     * @param options 压缩参数
+     * @return 压缩统计
+     * @throws FileNotFoundException 文件不存在
      */
-    private static void compress(File sourceFile, ZipOutputStream zos, String name,
-                                 boolean KeepDirStructure) throws Exception{
-        byte[] buf = new byte[BUFFER_SIZE];
-        if(sourceFile.isFile()){
-            // 向zip输出流中添加一个zip实体，构造器中name为zip实体的文件的名字
-            zos.putNextEntry(new ZipEntry(name));
-            // copy文件到zip输出流中
-            int len;
-            FileInputStream in = new FileInputStream(sourceFile);
-            while ((len = in.read(buf)) != -1){
-                zos.write(buf, 0, len);
-            }
-            // Complete the entry
-            zos.closeEntry();
-            in.close();
-        } else {
-            File[] listFiles = sourceFile.listFiles();
-            if(listFiles == null || listFiles.length == 0){
-                // 需要保留原来的文件结构时,需要对空文件夹进行处理
-                if(KeepDirStructure){
-                    // 空文件夹的处理
-                    zos.putNextEntry(new ZipEntry(name + "/"));
-                    // 没有文件，不需要文件的copy
-                    zos.closeEntry();
-                }
-            }else {
-                for (File file : listFiles) {
-                    // 判断是否需要保留原来的文件结构
-                    if (KeepDirStructure) {
-                        // 注意：file.getName()前面需要带上父文件夹的名字加一斜杠,
-                        // 不然最后压缩包中就不能保留原来的文件结构,即：所有文件都跑到压缩包根目录下了
-                        compress(file, zos, name + "/" + file.getName(),KeepDirStructure);
-                    } else {
-                        compress(file, zos, file.getName(),KeepDirStructure);
-                    }
-                }
+    public static ZipStats toZip(String srcDir, OutputStream out, ZipOptions options) throws IOException {
+        File sourceFile = new File(srcDir);
+        if (!sourceFile.exists()) {
+            throw new FileNotFoundException(srcDir);
+        }
+        return toZip(sourceFile, out, options);
+    }
+
+    private static ZipStats toZip(File sourceFile, OutputStream out, ZipOptions options) throws IOException {
+        List<ZipCompressor.Source> sources = new ArrayList<>();
+        ZipCompressor.collect(sourceFile, sourceFile.getName(), options.isKeepDirStructure(), sources);
+        ZipStats zipStats = new ZipCompressor(options).compress(sources, out);
+        log.info("压缩完成，{}。", zipStats);
+        return zipStats;
+    }
+
+    /**
+     * 按参数压缩多个文件，文件夹按keepDirStructure递归处理，完成后不关闭输出流
+     *
+     * @param srcFiles 需要压缩的文件列表
+     * @param out      压缩后文件输出流
+     * @param options  压缩参数
+     * @return 压缩统计
+     */
+    public static ZipStats toZip(List<File> srcFiles, OutputStream out, ZipOptions options) throws IOException {
+        List<ZipCompressor.Source> sources = new ArrayList<>(srcFiles.size());
+        for (File srcFile : srcFiles) {
+            ZipCompressor.collect(srcFile, srcFile.getName(), options.isKeepDirStructure(), sources);
+        }
+        ZipStats zipStats = new ZipCompressor(options).compress(sources, out);
+        log.info("压缩完成，{}。", zipStats);
+        return zipStats;
+    }
+
+    /**
+     * 增量压缩到压缩包文件，按旁边的清单文件（压缩包路径加.manifest）判断文件是否修改，
+     * 没有修改的文件从上一次的压缩包中原样复制压缩后的数据，只压缩新增和修改的文件，完成后替换原压缩包和清单
+     * 第一次压缩或清单不存在时为全量压缩
+     *
+     * @param srcDir  要压缩文件路径
+     * @param zipFile 压缩包文件
+     * @param options 压缩参数
+     * @return 压缩统计，reusedEntries为复用的条目数
+     */
+    public static ZipStats toZipIncremental(String srcDir, File zipFile, ZipOptions options) throws IOException {
+        File sourceFile = new File(srcDir);
+        if (!sourceFile.exists()) {
+            throw new FileNotFoundException(srcDir);
+        }
+        return toZipIncremental(Collections.singletonList(sourceFile), zipFile, options);
+    }
+
+    /**
+     * 增量压缩多个文件到压缩包文件，文件夹按keepDirStructure递归处理
+     *
+     * @param srcFiles 需要压缩的文件列表
+     * @param zipFile  压缩包文件
+     * @param options  压缩参数
+     * @return 压缩统计，reusedEntries为复用的条目数
+     */
+    public static ZipStats toZipIncremental(List<File> srcFiles, File zipFile, ZipOptions options) throws IOException {
+        List<ZipCompressor.Source> sources = new ArrayList<>(srcFiles.size());
+        for (File srcFile : srcFiles) {
+            ZipCompressor.collect(srcFile, srcFile.getName(), options.isKeepDirStructure(), sources);
+        }
+        ZipStats zipStats = new ZipIncrementalBuilder(zipFile, options).build(sources);
+        log.info("增量压缩完成，{}。", zipStats);
+        return zipStats;
+    }
+
+    /**
+     * 压缩文件或文件夹，直接作为下载响应返回，文件名支持中文
+     *
+     * <pre>
+     * &#64;GetMapping("/export")
+     * public ResponseEntity&lt;StreamingResponseBody&gt; export() throws FileNotFoundException {
+     *     return ZipUtils.toZipResponse("/data/export", "导出.zip", ZipOptions.defaults());
+     * }
+     * </pre>
+     *
+     * @param srcDir   要压缩文件路径
+     * @param fileName 下载的文件名
+     * @param options  压缩参数
+     * @return ResponseEntity
+     * @throws FileNotFoundException 文件不存在，在开始响应之前抛出
+     */
+    public static ResponseEntity<StreamingResponseBody> toZipResponse(String srcDir, String fileName, ZipOptions options)
+            throws FileNotFoundException {
+        StreamingResponseBody body = toZipStreaming(srcDir, options);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(ContentDisposition.builder("attachment").filename(fileName, StandardCharsets.UTF_8).build());
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    /**
+     * 压缩文件或文件夹，返回边压缩边写入响应的StreamingResponseBody，内存占用与压缩包大小无关
+     * 客户端断开连接时停止压缩
+     *
+     * @param srcDir  要压缩文件路径
+     * @param options 压缩参数，flushBytes为刷新响应的间隔
+     * @return StreamingResponseBody
+     * @throws FileNotFoundException 文件不存在，在开始响应之前抛出
+     */
+    public static StreamingResponseBody toZipStreaming(String srcDir, ZipOptions options) throws FileNotFoundException {
+        File sourceFile = new File(srcDir);
+        if (!sourceFile.exists()) {
+            throw new FileNotFoundException(srcDir);
+        }
+        return new ZipStreamingResponseBody(Collections.singletonList(sourceFile), options);
+    }
+
+    /**
+     * 压缩多个文件，返回边压缩边写入响应的StreamingResponseBody，文件夹按keepDirStructure递归处理
+     *
+     * @param srcFiles 需要压缩的文件列表
+     * @param options  压缩参数，flushBytes为刷新响应的间隔
+     * @return StreamingResponseBody
+     */
+    public static StreamingResponseBody toZipStreaming(List<File> srcFiles, ZipOptions options) {
+        return new ZipStreamingResponseBody(new ArrayList<>(srcFiles), options);
+    }
+
+    /**
+     * 解压到目录，已存在的文件会被覆盖，条目路径在目标目录之外时解压失败
+     *
+     * @param zipFile 压缩包
+     * @param destDir 目标目录，不存在时自动创建
+     * @return 解压统计
+     */
+    public static ZipStats unzip(File zipFile, File destDir) throws IOException {
+        return unzip(zipFile, destDir, ZipOptions.defaults());
+    }
+
+    /**
+     * 按参数解压到目录，parallelism大于1时多个文件并行解压
+     * 统计中的原始大小为解压出的文件大小，压缩后大小为各条目压缩数据的大小
+     *
+     * @param zipFile 压缩包
+     * @param destDir 目标目录，不存在时自动创建
+     * @param options 解压参数，使用parallelism、executor、maxInFlight和charset
+     * @return 解压统计
+     */
+    public static ZipStats unzip(File zipFile, File destDir, ZipOptions options) throws IOException {
+        if (!zipFile.isFile()) {
+            throw new FileNotFoundException(zipFile.getPath());
+        }
+        ZipStats zipStats = new ZipExtractor(options).extract(zipFile, destDir);
+        log.info("解压完成，{}。", zipStats);
+        return zipStats;
+    }
+
+    /**
+     * 按名称读取单个条目，只解析中央目录和该条目，不读取其他条目
+     *
+     * @param zipFile 压缩包
+     * @param name    条目名称
+     * @return 解压后的数据，条目不存在时返回null
+     */
+    public static byte[] readEntry(File zipFile, String name) throws IOException {
+        try (ZipArchiveReader reader = new ZipArchiveReader(zipFile)) {
+            ZipArchiveEntry entry = reader.getEntry(name);
+            return Objects.isNull(entry) ? null : reader.readAllBytes(entry);
+        }
+    }
+
+    /**
+     * 按顺序逐个处理输入流中的条目，边读边处理，不写临时文件，适合上传的压缩包、网络流等只能顺序读取的场景
+     * 完成后不关闭输入流
+     *
+     * @param in      压缩包输入流
+     * @param handler 条目处理，传入的输入流只包含当前条目的数据，不需要关闭
+     * @return 条目数
+     */
+    public static int forEachEntry(InputStream in, EntryHandler handler) throws IOException {
+        return forEachEntry(in, StandardCharsets.UTF_8, handler);
+    }
+
+    /**
+     * 按顺序逐个处理输入流中的条目，完成后不关闭输入流
+     *
+     * @param in      压缩包输入流
+     * @param charset 没有设置UTF-8标志的文件名使用的编码
+     * @param handler 条目处理，传入的输入流只包含当前条目的数据，不需要关闭
+     * @return 条目数
+     */
+    public static int forEachEntry(InputStream in, Charset charset, EntryHandler handler) throws IOException {
+        // ZipInputStream每次只从下层读取512字节，需要加上缓冲
+        InputStream input = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, BufferPool.DEFAULT_BUFFER_SIZE);
+        ZipInputStream zipInputStream = new ZipInputStream(input, charset);
+        InputStream entryInputStream = new CloseShieldInputStream(zipInputStream);
+        int count = 0;
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            handler.handle(entry, entryInputStream);
+            zipInputStream.closeEntry();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * forEachEntry()的条目处理
+     */
+    @FunctionalInterface
+    public interface EntryHandler {
+
+        void handle(ZipEntry entry, InputStream in) throws IOException;
+
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (Exception e) {
+                log.error("压缩失败：" + e);
             }
         }
     }
@@ -0,0 +1,258 @@
+package com.jinhx.java.util;
+
+import org.apache.sshd.common.config.keys.PublicKeyEntry;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.common.session.helpers.AbstractSession;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.subsystem.sftp.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SftpUtils、SftpSessionPool测试，使用嵌入式的Apache SSHD作为SFTP服务器，服务器公钥写入临时的known_hosts
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+class SftpUtilsTest {
+
+    private static final int FILE_SIZE = 3 * 1024 * 1024;
+
+    @TempDir
+    static Path tempDir;
+
+    private static SshServer server;
+
+    private static Path home;
+
+    private static File knownHosts;
+
+    private static SftpEndpoint endpoint;
+
+    private static byte[] data;
+
+    private static File localFile;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        home = Files.createDirectory(tempDir.resolve("home"));
+        SimpleGeneratorHostKeyProvider keyProvider = new SimpleGeneratorHostKeyProvider(tempDir.resolve("hostkey.ser"));
+        keyProvider.setAlgorithm("RSA");
+        server = SshServer.setUpDefaultServer();
+        server.setHost("127.0.0.1");
+        server.setPort(0);
+        server.setKeyPairProvider(keyProvider);
+        server.setPasswordAuthenticator((userName, password, session) -> "u".equals(userName) && "p".equals(password));
+        server.setSubsystemFactories(Collections.singletonList(new SftpSubsystemFactory()));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(home));
+        server.start();
+
+        KeyPair hostKey = keyProvider.loadKeys(null).get(0);
+        knownHosts = tempDir.resolve("known_hosts").toFile();
+        Files.write(knownHosts.toPath(), ("[127.0.0.1]:" + server.getPort() + " "
+                + PublicKeyEntry.toString(hostKey.getPublic()) + "\n").getBytes(StandardCharsets.UTF_8));
+        endpoint = new SftpEndpoint("127.0.0.1", server.getPort(), "u", "p");
+
+        data = new byte[FILE_SIZE];
+        new Random(1).nextBytes(data);
+        localFile = tempDir.resolve("local.bin").toFile();
+        Files.write(localFile.toPath(), data);
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        server.stop(true);
+    }
+
+    @BeforeEach
+    void setUp() {
+        SftpUtils.setPool(new SftpSessionPool(config().build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SftpUtils.getPool().close();
+    }
+
+    @Test
+    void uploadReplacesOlderShorterFile() throws IOException {
+        Path remote = Files.createDirectories(home.resolve("replace")).resolve("a.bin");
+        byte[] old = new byte[FILE_SIZE / 3];
+        new Random(2).nextBytes(old);
+        Files.write(remote, old);
+
+        assertEquals(FILE_SIZE, SftpUtils.uploadFile(endpoint, localFile, "/replace/a.bin", true));
+        assertArrayEquals(data, Files.readAllBytes(remote));
+        assertFalse(Files.exists(remote.resolveSibling("a.bin.part")));
+    }
+
+    @Test
+    void uploadResumesFromPartFile() throws IOException {
+        Path remote = Files.createDirectories(home.resolve("upload")).resolve("a.bin");
+        Files.write(remote.resolveSibling("a.bin.part"), Arrays.copyOf(data, 1_000_000));
+
+        assertEquals(FILE_SIZE - 1_000_000, SftpUtils.uploadFile(endpoint, localFile, "/upload/a.bin", true));
+        assertArrayEquals(data, Files.readAllBytes(remote));
+        assertFalse(Files.exists(remote.resolveSibling("a.bin.part")));
+    }
+
+    @Test
+    void downloadResumesFromPartFile() throws IOException {
+        Files.write(Files.createDirectories(home.resolve("download")).resolve("a.bin"), data);
+        File target = tempDir.resolve("download/a.bin").toFile();
+        Files.createDirectories(target.getParentFile().toPath());
+        Files.write(tempDir.resolve("download/a.bin.part"), Arrays.copyOf(data, 1_000_000));
+
+        assertEquals(FILE_SIZE - 1_000_000, SftpUtils.downloadFile(endpoint, "/download/a.bin", target, true));
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertFalse(Files.exists(tempDir.resolve("download/a.bin.part")));
+    }
+
+    @Test
+    void downloadRangesInParallel() throws Exception {
+        Files.write(Files.createDirectories(home.resolve("range")).resolve("a.bin"), data);
+        File target = tempDir.resolve("range.bin").toFile();
+        int segments = 4;
+        int segment = FILE_SIZE / segments;
+        ExecutorService executor = Executors.newFixedThreadPool(segments);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < segments; i++) {
+                long offset = (long) i * segment;
+                futures.add(executor.submit(() -> SftpUtils.downloadRange(endpoint, "/range/a.bin", offset, segment, target)));
+            }
+            for (Future<Long> future : futures) {
+                assertEquals(segment, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertThrows(IOException.class,
+                () -> SftpUtils.downloadRange(endpoint, "/range/a.bin", FILE_SIZE - 10, 20, target));
+    }
+
+    @Test
+    void borrowsChannelsAcrossSessions() throws IOException {
+        SftpUtils.setPool(new SftpSessionPool(config().borrowTimeoutMillis(200).build()));
+        SftpSessionPool pool = SftpUtils.getPool();
+        int maxChannels = pool.getConfig().getMaxChannelsPerHost();
+        List<SftpConnection> connections = new ArrayList<>();
+        try {
+            Set<Object> channels = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < maxChannels; i++) {
+                SftpConnection connection = pool.borrow(endpoint);
+                connections.add(connection);
+                channels.add(connection.getChannel());
+            }
+            assertEquals(maxChannels, channels.size());
+            assertEquals(maxChannels, pool.getBorrowedCount(endpoint));
+            assertEquals(pool.getConfig().getMaxSessionsPerHost(), pool.getSessionCount(endpoint));
+            // 达到上限后等待borrowTimeoutMillis超时
+            assertThrows(IOException.class, () -> pool.borrow(endpoint));
+        } finally {
+            connections.forEach(SftpConnection::close);
+        }
+        assertEquals(maxChannels, pool.getIdleCount(endpoint));
+    }
+
+    @Test
+    void uploadsInParallel() throws Exception {
+        int files = 12;
+        ExecutorService executor = Executors.newFixedThreadPool(files);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < files; i++) {
+                String remotePath = "/parallel/f" + i + ".bin";
+                futures.add(executor.submit(() -> SftpUtils.uploadFile(endpoint, localFile, remotePath, false)));
+            }
+            for (Future<Long> future : futures) {
+                assertEquals(FILE_SIZE, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = 0; i < files; i++) {
+            assertArrayEquals(data, Files.readAllBytes(home.resolve("parallel/f" + i + ".bin")));
+        }
+        assertTrue(SftpUtils.getPool().getSessionCount(endpoint) <= 2);
+    }
+
+    @Test
+    void recoversAfterSessionDrop() throws IOException {
+        SftpUtils.setPool(new SftpSessionPool(config().validateAfterIdleMillis(0).build()));
+        Files.write(Files.createDirectories(home.resolve("drop")).resolve("a.bin"), data);
+        File target = tempDir.resolve("drop.bin").toFile();
+        SftpUtils.downloadFile(endpoint, "/drop/a.bin", target, false);
+        assertEquals(1, SftpUtils.getPool().getIdleCount(endpoint));
+
+        for (AbstractSession session : server.getActiveSessions()) {
+            session.close(true);
+        }
+
+        assertEquals(FILE_SIZE, SftpUtils.downloadFile(endpoint, "/drop/a.bin", target, false));
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertEquals(1, SftpUtils.getPool().getSessionCount(endpoint));
+    }
+
+    @Test
+    void listsFiles() throws IOException {
+        Path dir = Files.createDirectories(home.resolve("list"));
+        for (int i = 0; i < 20; i++) {
+            Files.write(dir.resolve("f" + i), new byte[i]);
+        }
+        List<String> names = new ArrayList<>();
+        assertEquals(20, SftpUtils.listFiles(endpoint, "/list", entry -> names.add(entry.getFilename())));
+        assertEquals(20, names.size());
+    }
+
+    @Test
+    void rejectsUnknownHostKey() throws IOException {
+        File empty = tempDir.resolve("empty_known_hosts").toFile();
+        Files.write(empty.toPath(), new byte[0]);
+        SftpUtils.setPool(new SftpSessionPool(config().knownHosts(empty.getPath()).build()));
+
+        IOException e = assertThrows(IOException.class, () -> SftpUtils.listFiles(endpoint, "/", entry -> {
+        }));
+        assertTrue(e.getMessage().contains("HostKey"), e.getMessage());
+    }
+
+    /**
+     * 每个服务器最多2个会话，每个会话最多3个通道
+     */
+    private static SftpPoolConfig.Builder config() {
+        return SftpPoolConfig.builder()
+                .knownHosts(knownHosts.getPath())
+                .maxSessionsPerHost(2)
+                .maxChannelsPerSession(3);
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.jinhx.java.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ZipUtils压缩、解压测试，压缩结果用JDK的ZipFile和ZipInputStream读回比较
+ *
+ * @author jinhx
+ * @since 2026-10-18
+ */
+class ZipUtilsTest {
+
+    @TempDir
+    static Path tempDir;
+
+    private static File srcDir;
+
+    /**
+     * 源文件夹中的文件，key为压缩包中的条目名称
+     */
+    private static Map<String, byte[]> files;
+
+    @BeforeAll
+    static void createSource() throws IOException {
+        srcDir = Files.createDirectory(tempDir.resolve("src")).toFile();
+        files = new TreeMap<>();
+        Random random = new Random(1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("line ").append(i).append(", 压缩测试\n");
+        }
+        write("src/a.txt", text.toString().getBytes(StandardCharsets.UTF_8));
+        write("src/empty.txt", new byte[0]);
+        for (int i = 0; i < 8; i++) {
+            byte[] bytes = new byte[100_000 + i * 50_000];
+            random.nextBytes(bytes);
+            // 随机数据不可压缩，jpg按扩展名直接存储
+            write("src/sub/r" + i + (i % 2 == 0 ? ".bin" : ".jpg"), bytes);
+        }
+        write("src/sub/deep/c.txt", "多层目录".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sequentialAndParallelZipReadBack() throws IOException {
+        byte[] sequential = toZip(ZipOptions.defaults());
+        // 较小的spillThreshold让大文件经过临时文件
+        byte[] parallel = toZip(ZipOptions.builder().parallelism(4).spillThreshold(64 * 1024).build());
+
+        for (byte[] zip : new byte[][]{sequential, parallel}) {
+            assertEntries(readWithZipInputStream(zip));
+            File zipFile = Files.createTempFile(tempDir, "zip", ".zip").toFile();
+            Files.write(zipFile.toPath(), zip);
+            assertEntries(readWithZipFile(zipFile));
+        }
+    }
+
+    @Test
+    void storesIncompressibleEntries() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipStats zipStats = ZipUtils.toZip(srcDir.getPath(), out, ZipOptions.defaults());
+
+        assertEquals(files.size(), zipStats.getEntries());
+        assertTrue(zipStats.getStoredEntries() >= 4, zipStats.toString());
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.getName().endsWith(".jpg")) {
+                    assertEquals(ZipEntry.STORED, entry.getMethod(), entry.getName());
+                } else if (entry.getName().endsWith("a.txt")) {
+                    assertEquals(ZipEntry.DEFLATED, entry.getMethod(), entry.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void unzipRestoresFiles() throws IOException {
+        File zipFile = tempDir.resolve("unzip.zip").toFile();
+        try (OutputStream out = Files.newOutputStream(zipFile.toPath())) {
+            ZipUtils.toZip(srcDir.getPath(), out, ZipOptions.defaults());
+        }
+        File destDir = tempDir.resolve("unzip").toFile();
+
+        ZipStats zipStats = ZipUtils.unzip(zipFile, destDir, ZipOptions.builder().parallelism(4).build());
+
+        assertEquals(files.size(), zipStats.getEntries());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(file.getValue(), Files.readAllBytes(destDir.toPath().resolve(file.getKey())), file.getKey());
+        }
+        assertArrayEquals(files.get("src/a.txt"), ZipUtils.readEntry(zipFile, "src/a.txt"));
+        assertEquals(files.size(), ZipUtils.forEachEntry(Files.newInputStream(zipFile.toPath()), (entry, in) -> {
+        }));
+    }
+
+    @Test
+    void incrementalZipReusesUnchangedEntries() throws IOException {
+        File zipFile = tempDir.resolve("incremental.zip").toFile();
+        ZipOptions options = ZipOptions.builder().parallelism(2).build();
+        assertEquals(0, ZipUtils.toZipIncremental(srcDir.getPath(), zipFile, options).getReusedEntries());
+        assertEntries(readWithZipFile(zipFile));
+
+        Path changed = tempDir.resolve("src/sub/deep/c.txt");
+        byte[] oldContent = files.get("src/sub/deep/c.txt");
+        try {
+            write("src/sub/deep/c.txt", "修改后的内容".getBytes(StandardCharsets.UTF_8));
+            changed.toFile().setLastModified(changed.toFile().lastModified() + 10_000);
+
+            ZipStats zipStats = ZipUtils.toZipIncremental(srcDir.getPath(), zipFile, options);
+
+            assertEquals(files.size() - 1, zipStats.getReusedEntries());
+            assertEntries(readWithZipFile(zipFile));
+            assertEntries(readWithZipInputStream(Files.readAllBytes(zipFile.toPath())));
+        } finally {
+            write("src/sub/deep/c.txt", oldContent);
+        }
+    }
+
+    @Test
+    void unzipRejectsEntryOutsideTargetDir() throws IOException {
+        File zipFile = tempDir.resolve("evil.zip").toFile();
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+            out.putNextEntry(new ZipEntry("ok.txt"));
+            out.write(1);
+            out.putNextEntry(new ZipEntry("../evil.txt"));
+            out.write(1);
+        }
+        File destDir = tempDir.resolve("evil").toFile();
+
+        assertThrows(ZipException.class, () -> ZipUtils.unzip(zipFile, destDir));
+        assertFalse(Files.exists(tempDir.resolve("evil.txt")));
+    }
+
+    private static void write(String name, byte[] bytes) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, bytes);
+        files.put(name, bytes);
+    }
+
+    private static byte[] toZip(ZipOptions options) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipUtils.toZip(srcDir.getPath(), out, options);
+        return out.toByteArray();
+    }
+
+    private static void assertEntries(Map<String, byte[]> entries) {
+        assertEquals(files.keySet(), entries.keySet());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(file.getValue(), entries.get(file.getKey()), file.getKey());
+        }
+    }
+
+    private static Map<String, byte[]> readWithZipFile(File file) throws IOException {
+        Map<String, byte[]> entries = new TreeMap<>();
+        try (ZipFile zipFile = new ZipFile(file)) {
+            Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+            while (enumeration.hasMoreElements()) {
+                ZipEntry entry = enumeration.nextElement();
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    entries.put(entry.getName(), readAll(in));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static Map<String, byte[]> readWithZipInputStream(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new TreeMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), readAll(in));
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            out.write(buffer, 0, len);
+        }
+        return out.toByteArray();
+    }
+
+}